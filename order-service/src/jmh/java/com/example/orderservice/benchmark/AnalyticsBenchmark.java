@@ -0,0 +1,89 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.dto.AnalyticsSummaryDTO;
+import com.example.orderservice.dto.DailyOrdersDTO;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSalesRecord;
+import com.example.orderservice.model.ProductAnalytics;
+import com.example.orderservice.repository.InMemoryAnalyticsRollupRepository;
+import com.example.orderservice.repository.InMemoryOrderRepository;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import com.example.orderservice.service.SalesAnalyticsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregation behind the analytics endpoints over synthetic order sets: the
+ * rollup rebuild (fold plus rollup writes), the fold alone, and the rollup reads
+ * that {@code AnalyticsController} serves. Runs on the in-memory repositories, so
+ * storage latency is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+    private static final int BATCH = 25;
+
+    @Param({"10000", "100000"})
+    public int orderCount;
+
+    private SalesAnalyticsService analyticsService;
+    private List<OrderSalesRecord> salesRecords;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        InMemoryAnalyticsRollupRepository rollups = new InMemoryAnalyticsRollupRepository();
+        OrderAnalyticsAggregator aggregator = new OrderAnalyticsAggregator(rollups);
+        InMemoryOrderRepository orders = new InMemoryOrderRepository(aggregator, "");
+
+        List<Order> generated = SyntheticOrders.orders(orderCount, 90, 500);
+        for (int i = 0; i < generated.size(); i += BATCH) {
+            orders.putBatch(generated.subList(i, Math.min(i + BATCH, generated.size())));
+        }
+        salesRecords = new ArrayList<>(generated.size());
+        generated.forEach(o -> salesRecords.add(new OrderSalesRecord(o.getOrderID(), o.getOrderDate(), o.getItems())));
+
+        analyticsService = new SalesAnalyticsService(rollups, aggregator, orders, 1);
+        analyticsService.rebuildRollups();
+        today = SyntheticOrders.END.atZone(ZoneOffset.UTC).toLocalDate().minusDays(1);
+    }
+
+    @Benchmark
+    public long rebuildRollups() {
+        return analyticsService.rebuildRollups();
+    }
+
+    @Benchmark
+    public OrderAnalyticsAggregator.Totals foldTotals() {
+        OrderAnalyticsAggregator.Totals totals = new OrderAnalyticsAggregator.Totals();
+        for (OrderSalesRecord record : salesRecords) {
+            totals.add(record);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public List<ProductAnalytics> salesByProduct() {
+        return analyticsService.getSalesByProduct();
+    }
+
+    @Benchmark
+    public List<DailyOrdersDTO> ordersByDay() {
+        return analyticsService.getOrdersByDay(today, 7);
+    }
+
+    @Benchmark
+    public AnalyticsSummaryDTO summary() {
+        return analyticsService.getSummary(today);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.security.JwtFilter;
+import com.example.orderservice.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validation on its own (with and without the verified-token cache) and the
+ * full per-request cost of {@link JwtFilter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+        final JwtUtil cached = new JwtUtil(10_000, Duration.ofMinutes(5));
+        // A zero TTL expires every entry on creation, so each call verifies the signature
+        final JwtUtil uncached = new JwtUtil(10_000, Duration.ZERO);
+        String token;
+        String tampered;
+
+        @Setup
+        public void setUp() {
+            token = cached.generateToken("bench-user");
+            tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        }
+    }
+
+    // Mock requests are not thread-safe, so each benchmark thread gets its own
+    @State(Scope.Thread)
+    public static class Requests {
+        final JwtFilter filter = new JwtFilter(new SimpleMeterRegistry());
+        final FilterChain chain = (request, response) -> { };
+        MockHttpServletRequest authenticated;
+        MockHttpServletRequest anonymous;
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup
+        public void setUp(Tokens tokens) {
+            ReflectionTestUtils.setField(filter, "jwtUtil", tokens.cached);
+            authenticated = new MockHttpServletRequest("GET", "/api/orders");
+            authenticated.addHeader("Authorization", "Bearer " + tokens.token);
+            anonymous = new MockHttpServletRequest("GET", "/api/orders");
+        }
+    }
+
+    @Benchmark
+    public String validateCached(Tokens tokens) {
+        return tokens.cached.validateAndGetUsername(tokens.token);
+    }
+
+    @Benchmark
+    public String validateUncached(Tokens tokens) {
+        return tokens.uncached.validateAndGetUsername(tokens.token);
+    }
+
+    @Benchmark
+    public String rejectTamperedToken(Tokens tokens) {
+        return tokens.uncached.validateAndGetUsername(tokens.tampered);
+    }
+
+    // The security context is cleared after every request, as Spring Security does
+    @Benchmark
+    public void filterAuthenticatedRequest(Requests requests) throws Exception {
+        requests.filter.doFilter(requests.authenticated, requests.response, requests.chain);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filterAnonymousRequest(Requests requests) throws Exception {
+        requests.filter.doFilter(requests.anonymous, requests.response, requests.chain);
+        SecurityContextHolder.clearContext();
+    }
+}
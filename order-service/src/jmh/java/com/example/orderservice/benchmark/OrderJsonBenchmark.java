@@ -0,0 +1,66 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.util.JsonCodecs;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Order} JSON serialization with the shared {@link JsonCodecs} reader and writer,
+ * against a plain mapper (no Blackbird) as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "10"})
+    public int itemCount;
+
+    private final JsonMapper plainMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final ObjectReader plainReader = plainMapper.readerFor(Order.class);
+    private final ObjectWriter plainWriter = plainMapper.writerFor(Order.class);
+
+    private Order order;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        order = SyntheticOrders.order("order-00000001", Instant.parse("2024-05-01T10:15:30.123Z"),
+                SyntheticOrders.items(itemCount, new SplittableRandom(42), 500));
+        json = JsonCodecs.ORDER_WRITER.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return JsonCodecs.ORDER_WRITER.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserialize() throws IOException {
+        return JsonCodecs.ORDER_READER.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serializePlainMapper() throws IOException {
+        return plainWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order deserializePlainMapper() throws IOException {
+        return plainReader.readValue(json);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.util.ProductItemListConverter;
+import com.example.orderservice.util.ProductItemListConverter.StorageFormat;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of {@code Order.items} in both storage formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductItemListConverterBenchmark {
+
+    @Param({"JSON", "LIST"})
+    public StorageFormat format;
+
+    @Param({"1", "5", "25"})
+    public int itemCount;
+
+    private final ProductItemListConverter converter = new ProductItemListConverter();
+    private List<ProductItem> items;
+    private AttributeValue encoded;
+
+    @Setup
+    public void setUp() {
+        // The write format is static; each parameter combination runs in its own fork
+        ProductItemListConverter.setWriteFormat(format);
+        items = SyntheticOrders.items(itemCount, new SplittableRandom(42), 500);
+        encoded = converter.transformFrom(items);
+    }
+
+    @Benchmark
+    public AttributeValue encode() {
+        return converter.transformFrom(items);
+    }
+
+    @Benchmark
+    public List<ProductItem> decode() {
+        return converter.transformTo(encoded);
+    }
+
+    @Benchmark
+    public List<ProductItem> roundTrip() {
+        return converter.transformTo(converter.transformFrom(items));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.ProductItem;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic order data for the benchmarks, so runs on different commits compare
+ * like with like.
+ */
+final class SyntheticOrders {
+
+    static final Instant END = Instant.parse("2024-06-01T00:00:00Z");
+
+    private SyntheticOrders() {
+    }
+
+    static List<ProductItem> items(int count, SplittableRandom random, int products) {
+        List<ProductItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new ProductItem("product-" + random.nextInt(products),
+                    1 + random.nextInt(5), 1 + random.nextInt(50_000) / 100.0));
+        }
+        return items;
+    }
+
+    static Order order(String id, Instant orderDate, List<ProductItem> items) {
+        Order order = new Order();
+        order.setOrderID(id);
+        order.setCustomerName("Customer " + id);
+        order.setOrderDate(orderDate.toString());
+        order.setItems(items);
+        order.setAmount(items.stream().mapToDouble(item -> item.getQuantity() * item.getUnitPrice()).sum());
+        order.setStatus(OrderStatus.COMPLETED);
+        order.setInvoiceUrl("https://order-invoices.s3.amazonaws.com/invoices/" + id + ".pdf");
+        return order;
+    }
+
+    /**
+     * {@code count} orders spread over the {@code days} before {@link #END}, each with
+     * one to five items drawn from {@code products} products.
+     */
+    static List<Order> orders(int count, int days, int products) {
+        SplittableRandom random = new SplittableRandom(42);
+        long windowSeconds = days * 86_400L;
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant at = END.minusSeconds(1 + random.nextLong(windowSeconds)).truncatedTo(ChronoUnit.MILLIS);
+            orders.add(order(String.format("order-%08d", i), at, items(1 + random.nextInt(5), random, products)));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.orderservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process HTTP stand-ins for the S3 and SNS calls the service makes, so a
+ * load test measures the app rather than the network. Bodies are read and discarded;
+ * responses are just enough for the SDK to parse. A fixed delay can be added before each
+ * response to stand in for the round trip to AWS, which is what ties up request threads.
+ */
+final class AwsStandIns implements AutoCloseable {
+
+    private static final String SNS_NAMESPACE = "http://sns.amazonaws.com/doc/2010-03-31/";
+    private static final String S3_NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+
+    private final HttpServer s3;
+    private final HttpServer sns;
+    // Platform threads: the JDK server's request streams read inside synchronized, so on
+    // virtual threads the stand-ins would pin carriers and skew the virtual-thread runs
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Duration latency;
+
+    final AtomicLong s3Requests = new AtomicLong();
+    final AtomicLong s3BytesReceived = new AtomicLong();
+    final AtomicLong snsMessages = new AtomicLong();
+
+    private AwsStandIns(Duration latency) throws IOException {
+        this.latency = latency;
+        s3 = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        s3.createContext("/", this::handleS3);
+        s3.setExecutor(executor);
+        sns = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        sns.createContext("/", this::handleSns);
+        sns.setExecutor(executor);
+    }
+
+    static AwsStandIns start(Duration latency) throws IOException {
+        AwsStandIns standIns = new AwsStandIns(latency);
+        standIns.s3.start();
+        standIns.sns.start();
+        return standIns;
+    }
+
+    String s3Endpoint() {
+        return "http://127.0.0.1:" + s3.getAddress().getPort();
+    }
+
+    String snsEndpoint() {
+        return "http://127.0.0.1:" + sns.getAddress().getPort();
+    }
+
+    // Path-style: PUT object, multipart create/part/complete, abort
+    private void handleS3(HttpExchange exchange) throws IOException {
+        s3Requests.incrementAndGet();
+        // The SDK checks the ETag of a PutObject/UploadPart against the MD5 of what it sent
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        boolean chunked = sha256 != null && sha256.startsWith("STREAMING-");
+        String etag = "\"" + HexFormat.of().formatHex(drain(exchange.getRequestBody(), chunked)) + "\"";
+        String method = exchange.getRequestMethod();
+        String query = exchange.getRequestURI().getRawQuery() != null ? exchange.getRequestURI().getRawQuery() : "";
+        delay();
+
+        if ("POST".equals(method) && query.contains("uploads")) {
+            respondXml(exchange, "<InitiateMultipartUploadResult xmlns=\"" + S3_NAMESPACE + "\">"
+                    + "<UploadId>" + UUID.randomUUID() + "</UploadId></InitiateMultipartUploadResult>");
+        } else if ("POST".equals(method) && query.contains("uploadId")) {
+            respondXml(exchange, "<CompleteMultipartUploadResult xmlns=\"" + S3_NAMESPACE + "\">"
+                    + "<ETag>" + etag + "</ETag></CompleteMultipartUploadResult>");
+        } else if ("PUT".equals(method)) {
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(200, -1);
+        } else if ("DELETE".equals(method)) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+        exchange.close();
+    }
+
+    // Query protocol: form-encoded Action=Publish or Action=PublishBatch
+    private void handleSns(HttpExchange exchange) throws IOException {
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String action = null;
+        List<String> entryIds = new ArrayList<>();
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String name = URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (name.equals("Action")) {
+                action = value;
+            } else if (name.startsWith("PublishBatchRequestEntries.member.") && name.endsWith(".Id")) {
+                entryIds.add(value);
+            }
+        }
+
+        delay();
+        String requestId = "<ResponseMetadata><RequestId>" + UUID.randomUUID() + "</RequestId></ResponseMetadata>";
+        if ("PublishBatch".equals(action)) {
+            snsMessages.addAndGet(entryIds.size());
+            StringBuilder successful = new StringBuilder();
+            for (String id : entryIds) {
+                successful.append("<member><Id>").append(id).append("</Id><MessageId>")
+                        .append(UUID.randomUUID()).append("</MessageId></member>");
+            }
+            respondXml(exchange, "<PublishBatchResponse xmlns=\"" + SNS_NAMESPACE + "\"><PublishBatchResult>"
+                    + "<Successful>" + successful + "</Successful><Failed/></PublishBatchResult>"
+                    + requestId + "</PublishBatchResponse>");
+        } else if ("Publish".equals(action)) {
+            snsMessages.incrementAndGet();
+            respondXml(exchange, "<PublishResponse xmlns=\"" + SNS_NAMESPACE + "\"><PublishResult><MessageId>"
+                    + UUID.randomUUID() + "</MessageId></PublishResult>" + requestId + "</PublishResponse>");
+        } else {
+            exchange.sendResponseHeaders(400, -1);
+        }
+        exchange.close();
+    }
+
+    private void delay() throws IOException {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    /**
+     * Reads the body, counting its bytes, and returns the MD5 of the payload. Over plain
+     * HTTP the SDK signs each chunk ("aws-chunked": hex-size;chunk-signature=...\r\n
+     * data\r\n ... 0;...), so only the data parts count.
+     */
+    private byte[] drain(InputStream body, boolean awsChunked) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[16 * 1024];
+        if (!awsChunked) {
+            for (int n; (n = body.read(buffer)) != -1; ) {
+                md5.update(buffer, 0, n);
+                s3BytesReceived.addAndGet(n);
+            }
+            return md5.digest();
+        }
+        String header;
+        while ((header = readLine(body)) != null && !header.isEmpty()) {
+            int semicolon = header.indexOf(';');
+            long remaining = Long.parseLong(semicolon >= 0 ? header.substring(0, semicolon) : header, 16);
+            if (remaining == 0) {
+                break;
+            }
+            while (remaining > 0) {
+                int n = body.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n == -1) {
+                    throw new IOException("Truncated aws-chunked body");
+                }
+                md5.update(buffer, 0, n);
+                s3BytesReceived.addAndGet(n);
+                remaining -= n;
+            }
+            readLine(body);
+        }
+        body.transferTo(OutputStream.nullOutputStream());
+        return md5.digest();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c; (c = in.read()) != -1; ) {
+            if (c == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            line.append((char) c);
+        }
+        return line.length() > 0 ? line.toString() : null;
+    }
+
+    private static void respondXml(HttpExchange exchange, String xml) throws IOException {
+        byte[] body = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        s3.stop(0);
+        sns.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.orderservice.loadtest;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Latency samples of one endpoint from one worker thread. Workers never share a
+ * recorder, so recording is a plain array store; {@link #merge} combines them once
+ * the run is over.
+ */
+final class LatencyRecorder {
+
+    private long[] nanos = new long[4096];
+    private int count;
+    private long errors;
+
+    void record(long latencyNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    static Summary merge(Collection<LatencyRecorder> recorders, double seconds) {
+        int total = 0;
+        long errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+            errors += recorder.errors;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.nanos, 0, all, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(all);
+        return new Summary(total, errors, total / seconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99), percentileMillis(all, 0.999),
+                all.length > 0 ? all[all.length - 1] / 1e6 : 0);
+    }
+
+    // Nearest-rank percentile
+    private static double percentileMillis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    record Summary(long requests, long errors, double requestsPerSecond,
+                   double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.orderservice.loadtest;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.util.JsonCodecs;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * End-to-end load test: boots the service against local stand-ins, seeds products and
+ * orders, then drives a weighted mix of endpoints from {@code loadtest.concurrency}
+ * closed-loop workers and reports requests/sec and p50/p99/p999 latency per endpoint.
+ *
+ * S3 and SNS are always served by {@link AwsStandIns}. DynamoDB is the in-memory
+ * {@code local} profile unless {@code loadtest.dynamodb-endpoint} points at a DynamoDB
+ * Local instance, in which case the tables are created there if missing.
+ *
+ * {@code loadtest.threads} picks platform or virtual request threads
+ * ({@code spring.threads.virtual.enabled}), or {@code both} to boot the app once per mode
+ * and compare them side by side; {@code loadtest.aws-latency-ms} delays every stand-in
+ * response, so requests spend their time waiting on I/O as they would against AWS.
+ * Virtual-thread pinning is recorded with JFR during each run and reported with the
+ * frames responsible.
+ *
+ * Run with {@code mvn -Ploadtest -DskipTests verify}; the settings below are system properties.
+ * Workers wait for each response before sending the next request, so latencies under
+ * saturation understate what an open-loop client would see.
+ */
+public final class OrderServiceLoadTest {
+
+    private static final String BOUNDARY = "loadtest-" + UUID.randomUUID();
+
+    enum Endpoint {
+        CREATE_ORDER("create", "POST /api/orders"),
+        GET_ORDER("get", "GET /api/orders/{id}"),
+        ANALYTICS_SUMMARY("summary", "GET /api/analytics/summary"),
+        ANALYTICS_PRODUCTS("products", "GET /api/analytics/products"),
+        ANALYTICS_ORDERS_BY_DAY("ordersByDay", "GET /api/analytics/orders-by-day");
+
+        final String key;
+        final String label;
+
+        Endpoint(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+    }
+
+    record Settings(int concurrency, Duration warmup, Duration duration, Map<Endpoint, Integer> mix,
+                    int products, int seedOrders, int invoiceBytes, boolean asyncCreate,
+                    String dynamoDbEndpoint, List<String> threadModes, Duration awsLatency, Path result) {
+
+        static Settings fromSystemProperties() {
+            Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+            String spec = System.getProperty("loadtest.mix", "create=20,get=50,summary=10,products=10,ordersByDay=10");
+            for (String part : spec.split(",")) {
+                String[] weight = part.trim().split("=");
+                Endpoint endpoint = null;
+                for (Endpoint candidate : Endpoint.values()) {
+                    if (candidate.key.equals(weight[0])) {
+                        endpoint = candidate;
+                    }
+                }
+                if (endpoint == null || weight.length != 2) {
+                    throw new IllegalArgumentException("Bad loadtest.mix entry: " + part);
+                }
+                mix.put(endpoint, Integer.parseInt(weight[1]));
+            }
+            String threads = System.getProperty("loadtest.threads", "platform");
+            List<String> threadModes = switch (threads) {
+                case "platform", "virtual" -> List.of(threads);
+                case "both" -> List.of("platform", "virtual");
+                default -> throw new IllegalArgumentException("loadtest.threads must be platform, virtual or both: " + threads);
+            };
+            return new Settings(
+                    Integer.getInteger("loadtest.concurrency", 32),
+                    Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10)),
+                    Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30)),
+                    mix,
+                    Integer.getInteger("loadtest.products", 200),
+                    Integer.getInteger("loadtest.seed-orders", 10_000),
+                    Integer.getInteger("loadtest.invoice-bytes", 32 * 1024),
+                    Boolean.getBoolean("loadtest.async-create"),
+                    System.getProperty("loadtest.dynamodb-endpoint", ""),
+                    threadModes,
+                    Duration.ofMillis(Integer.getInteger("loadtest.aws-latency-ms", 0)),
+                    Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json")));
+        }
+
+        Endpoint pick(SplittableRandom random) {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int r = random.nextInt(total);
+            for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+                r -= entry.getValue();
+                if (r < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private final Settings settings;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final byte[] invoice;
+    private String baseUrl;
+    private String authorization;
+    private List<String> productIds = List.of();
+    private List<String> orderIds = List.of();
+
+    private OrderServiceLoadTest(Settings settings) {
+        this.settings = settings;
+        this.invoice = new byte[settings.invoiceBytes()];
+        byte[] header = "%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, invoice, 0, Math.min(header.length, invoice.length));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        // Stand-ins accept any credentials, but the SDK still needs some to sign with
+        if (System.getProperty("aws.accessKeyId") == null) {
+            System.setProperty("aws.accessKeyId", "loadtest");
+            System.setProperty("aws.secretAccessKey", "loadtest");
+        }
+        if (!settings.dynamoDbEndpoint().isBlank()) {
+            createTablesIfMissing(settings.dynamoDbEndpoint());
+        }
+
+        try (AwsStandIns standIns = AwsStandIns.start(settings.awsLatency())) {
+            Map<String, Map<Endpoint, LatencyRecorder.Summary>> results = new LinkedHashMap<>();
+            Map<String, PinningMonitor.Summary> pinning = new LinkedHashMap<>();
+            // A fresh app per mode, so neither run inherits the other's caches or seeded data
+            for (String mode : settings.threadModes()) {
+                try (ConfigurableApplicationContext app = boot(settings, standIns, mode.equals("virtual"));
+                     PinningMonitor monitor = PinningMonitor.start(Duration.ofMillis(20))) {
+                    OrderServiceLoadTest test = new OrderServiceLoadTest(settings);
+                    test.baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+                    test.login();
+                    test.seed();
+                    results.put(mode, test.run());
+                    pinning.put(mode, monitor.stop());
+                }
+                report(mode, results.get(mode), pinning.get(mode));
+            }
+            writeResult(settings, results, pinning, standIns);
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(Settings settings, AwsStandIns standIns, boolean virtualThreads) {
+        boolean local = settings.dynamoDbEndpoint().isBlank();
+        // Command-line arguments take precedence over application.yml
+        return SpringApplication.run(OrderServiceApplication.class,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.profiles.active=" + (local ? "local" : "production"),
+                "--aws.endpoint.dynamodb=" + settings.dynamoDbEndpoint(),
+                "--aws.endpoint.s3=" + standIns.s3Endpoint(),
+                "--aws.endpoint.sns=" + standIns.snsEndpoint(),
+                "--notifications.topic-arn=arn:aws:sns:ap-south-1:000000000000:order-notifications",
+                "--orders.create.async-by-default=" + settings.asyncCreate(),
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.orderservice=WARN",
+                "--logging.level.org.springframework.security=WARN");
+    }
+
+    private void login() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"gokul\",\"password\":\"Sanjay@123\"}"))
+                .build(), 200);
+        authorization = "Bearer " + JsonCodecs.MAPPER.readTree(response.body()).get("token").asText();
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> products = new ArrayList<>(settings.products());
+        for (int i = 0; i < settings.products(); i++) {
+            String body = JsonCodecs.MAPPER.writeValueAsString(Map.of(
+                    "name", "Product " + i, "price", 1 + random.nextInt(50_000) / 100.0,
+                    "category", "category-" + (i % 10), "stock", 1000));
+            HttpResponse<String> response = send(authorized("/api/products")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), 200);
+            products.add(JsonCodecs.MAPPER.readTree(response.body()).get("productId").asText());
+        }
+        productIds = products;
+
+        // Spread over the last 30 days so the per-day analytics have data
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        List<String> orders = new ArrayList<>(settings.seedOrders());
+        Instant now = Instant.now();
+        for (int i = 0; i < settings.seedOrders(); i++) {
+            Order order = new Order();
+            order.setOrderID(String.format("seed-%08d", i));
+            order.setCustomerName("Seed customer " + i);
+            order.setItems(randomItems(random));
+            order.setAmount(amount(order.getItems()));
+            order.setOrderDate(now.minusSeconds(random.nextLong(30 * 86_400L)).toString());
+            order.setStatus(OrderStatus.COMPLETED);
+            ndjson.write(JsonCodecs.ORDER_WRITER.writeValueAsBytes(order));
+            ndjson.write('\n');
+            orders.add(order.getOrderID());
+        }
+        HttpResponse<String> response = send(authorized("/api/orders/bulk")
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson.toByteArray()))
+                .build(), 200);
+        JsonNode bulk = JsonCodecs.MAPPER.readTree(response.body());
+        if (bulk.get("ordersFailed").asLong() > 0) {
+            throw new IllegalStateException("Seeding failed: " + response.body());
+        }
+        orderIds = orders;
+        System.out.printf("Seeded %d products and %d orders%n", productIds.size(), orderIds.size());
+    }
+
+    private Map<Endpoint, LatencyRecorder.Summary> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        System.out.printf("Running %d workers: %ds warmup, %ds measured, mix %s%n", settings.concurrency(),
+                settings.warmup().toSeconds(), settings.duration().toSeconds(), settings.mix());
+
+        List<Map<Endpoint, LatencyRecorder>> perWorker = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                recorders.put(endpoint, new LatencyRecorder());
+            }
+            perWorker.add(recorders);
+            SplittableRandom random = new SplittableRandom(1000 + i);
+            workers.add(Thread.ofPlatform().name("loadtest-worker-" + i).start(() -> {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    Endpoint endpoint = settings.pick(random);
+                    boolean ok;
+                    try {
+                        ok = execute(endpoint, random);
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long latency = System.nanoTime() - now;
+                    if (now >= measureFrom) {
+                        LatencyRecorder recorder = recorders.get(endpoint);
+                        if (ok) {
+                            recorder.record(latency);
+                        } else {
+                            recorder.error();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        double seconds = settings.duration().toNanos() / 1e9;
+        Map<Endpoint, LatencyRecorder.Summary> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : settings.mix().keySet()) {
+            results.put(endpoint, LatencyRecorder.merge(perWorker.stream().map(r -> r.get(endpoint)).toList(), seconds));
+        }
+        return results;
+    }
+
+    private boolean execute(Endpoint endpoint, SplittableRandom random) throws IOException, InterruptedException {
+        HttpRequest request = switch (endpoint) {
+            case CREATE_ORDER -> createOrderRequest(random);
+            case GET_ORDER -> authorized("/api/orders/" + orderIds.get(random.nextInt(orderIds.size()))).GET().build();
+            case ANALYTICS_SUMMARY -> authorized("/api/analytics/summary").GET().build();
+            case ANALYTICS_PRODUCTS -> authorized("/api/analytics/products").GET().build();
+            case ANALYTICS_ORDERS_BY_DAY -> authorized("/api/analytics/orders-by-day").GET().build();
+        };
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private HttpRequest createOrderRequest(SplittableRandom random) throws IOException {
+        List<ProductItem> items = randomItems(random);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(invoice.length + 1024);
+        field(body, "customerName", "Load test customer");
+        field(body, "amount", Double.toString(amount(items)));
+        field(body, "items", JsonCodecs.PRODUCT_ITEMS_WRITER.writeValueAsString(items));
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"invoice\"; filename=\"invoice.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(invoice);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return authorized("/api/orders")
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<ProductItem> randomItems(SplittableRandom random) {
+        int count = 1 + random.nextInt(3);
+        List<ProductItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new ProductItem(productIds.get(random.nextInt(productIds.size())),
+                    1 + random.nextInt(5), 1 + random.nextInt(50_000) / 100.0));
+        }
+        return items;
+    }
+
+    private static double amount(List<ProductItem> items) {
+        return items.stream().mapToDouble(item -> item.getQuantity() * item.getUnitPrice()).sum();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+    }
+
+    private HttpResponse<String> send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.method() + " " + request.uri().getPath()
+                    + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private static void report(String mode, Map<Endpoint, LatencyRecorder.Summary> results,
+                               PinningMonitor.Summary pinning) {
+        System.out.printf("%n%s threads%n", mode);
+        System.out.printf("%-36s %9s %7s %10s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        results.forEach((endpoint, summary) ->
+                System.out.printf("%-36s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.label,
+                        summary.requests(), summary.errors(), summary.requestsPerSecond(),
+                        summary.p50Millis(), summary.p99Millis(), summary.p999Millis(), summary.maxMillis()));
+        System.out.printf("Pinned virtual threads: %d events, %.1f ms in total%n", pinning.events(), pinning.totalMillis());
+        pinning.topFrames().forEach((frame, count) -> System.out.printf("  %6d  %s%n", count, frame));
+    }
+
+    private static void writeResult(Settings settings, Map<String, Map<Endpoint, LatencyRecorder.Summary>> results,
+                                    Map<String, PinningMonitor.Summary> pinning, AwsStandIns standIns) throws IOException {
+        System.out.printf("%nStand-ins: %d S3 requests (%d bytes), %d SNS messages%n",
+                standIns.s3Requests.get(), standIns.s3BytesReceived.get(), standIns.snsMessages.get());
+        if (results.size() > 1 && settings.mix().containsKey(Endpoint.CREATE_ORDER)) {
+            System.out.printf("%n%-36s %10s %9s %9s %9s%n", Endpoint.CREATE_ORDER.label, "Req/s", "p50 ms", "p99 ms", "p999 ms");
+            results.forEach((mode, byEndpoint) -> {
+                LatencyRecorder.Summary summary = byEndpoint.get(Endpoint.CREATE_ORDER);
+                System.out.printf("%-36s %10.1f %9.2f %9.2f %9.2f%n", mode + " threads",
+                        summary.requestsPerSecond(), summary.p50Millis(), summary.p99Millis(), summary.p999Millis());
+            });
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timestamp", Instant.now().toString());
+        json.put("concurrency", settings.concurrency());
+        json.put("warmupSeconds", settings.warmup().toSeconds());
+        json.put("durationSeconds", settings.duration().toSeconds());
+        json.put("storage", settings.dynamoDbEndpoint().isBlank() ? "local" : settings.dynamoDbEndpoint());
+        json.put("asyncCreate", settings.asyncCreate());
+        json.put("awsLatencyMs", settings.awsLatency().toMillis());
+        List<Map<String, Object>> runs = new ArrayList<>();
+        results.forEach((mode, byEndpoint) -> {
+            Map<String, LatencyRecorder.Summary> byLabel = new LinkedHashMap<>();
+            byEndpoint.forEach((endpoint, summary) -> byLabel.put(endpoint.label, summary));
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("threads", mode);
+            run.put("endpoints", byLabel);
+            run.put("pinning", pinning.get(mode));
+            runs.add(run);
+        });
+        json.put("runs", runs);
+        Path result = settings.result().toAbsolutePath();
+        Files.createDirectories(result.getParent());
+        JsonCodecs.MAPPER.writerWithDefaultPrettyPrinter().writeValue(result.toFile(), json);
+        System.out.println("Results written to " + result);
+    }
+
+    private static void createTablesIfMissing(String endpoint) {
+        try (DynamoDbClient client = DynamoDbClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.AP_SOUTH_1)
+                .build()) {
+            List<String> existing = client.listTables().tableNames();
+            if (!existing.contains("orders")) {
+                client.createTable(CreateTableRequest.builder()
+                        .tableName("orders")
+                        .billingMode(BillingMode.PAY_PER_REQUEST)
+                        .attributeDefinitions(attribute("orderID"), attribute("orderDay"), attribute("orderDate"))
+                        .keySchema(key("orderID", KeyType.HASH))
+                        .globalSecondaryIndexes(GlobalSecondaryIndex.builder()
+                                .indexName(Order.ORDER_DAY_INDEX)
+                                .keySchema(key("orderDay", KeyType.HASH), key("orderDate", KeyType.RANGE))
+                                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                                .build())
+                        .build());
+            }
+            if (!existing.contains("Products")) {
+                client.createTable(CreateTableRequest.builder()
+                        .tableName("Products")
+                        .billingMode(BillingMode.PAY_PER_REQUEST)
+                        .attributeDefinitions(attribute("productId"))
+                        .keySchema(key("productId", KeyType.HASH))
+                        .build());
+            }
+            if (!existing.contains("order_rollups")) {
+                client.createTable(CreateTableRequest.builder()
+                        .tableName("order_rollups")
+                        .billingMode(BillingMode.PAY_PER_REQUEST)
+                        .attributeDefinitions(attribute("rollupType"), attribute("rollupId"))
+                        .keySchema(key("rollupType", KeyType.HASH), key("rollupId", KeyType.RANGE))
+                        .build());
+            }
+        }
+    }
+
+    private static AttributeDefinition attribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+
+    private static KeySchemaElement key(String name, KeyType type) {
+        return KeySchemaElement.builder().attributeName(name).keyType(type).build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.orderservice.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts {@code jdk.VirtualThreadPinned} events while a run is in progress: a virtual
+ * thread that blocks inside {@code synchronized} (or native code) holds on to its
+ * carrier, and enough of them stall every other virtual thread. Events are grouped by
+ * the first application frame on the stack, so the report points at the code to fix.
+ */
+final class PinningMonitor implements AutoCloseable {
+
+    private static final String APP_PACKAGE = "com.example.orderservice.";
+
+    private final RecordingStream recording = new RecordingStream();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final Map<String, LongAdder> byFrame = new ConcurrentHashMap<>();
+
+    private PinningMonitor(Duration threshold) {
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::record);
+    }
+
+    static PinningMonitor start(Duration threshold) {
+        PinningMonitor monitor = new PinningMonitor(threshold);
+        monitor.recording.startAsync();
+        return monitor;
+    }
+
+    private void record(RecordedEvent event) {
+        events.incrementAndGet();
+        totalNanos.addAndGet(event.getDuration().toNanos());
+        byFrame.computeIfAbsent(frame(event.getStackTrace()), f -> new LongAdder()).increment();
+    }
+
+    private static String frame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack trace)";
+        }
+        RecordedFrame first = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            if (first == null) {
+                first = frame;
+            }
+            if (frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return first != null ? describe(first) : "(native)";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Stops recording, after delivering the events still buffered, and summarizes them.
+     */
+    Summary stop() {
+        recording.stop();
+        Map<String, Long> top = new LinkedHashMap<>();
+        byFrame.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(10)
+                .forEach(e -> top.put(e.getKey(), e.getValue().sum()));
+        return new Summary(events.get(), totalNanos.get() / 1e6, top);
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+
+    record Summary(long events, double totalMillis, Map<String, Long> topFrames) {
+    }
+}
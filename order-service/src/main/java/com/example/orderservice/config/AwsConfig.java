@@ -1,44 +1,105 @@
 package com.example.orderservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.sns.SnsClient;
 
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * AWS clients. Each service endpoint can be overridden ({@code aws.endpoint.*}) to
+ * point the app at local stand-ins such as DynamoDB Local or LocalStack; S3 then uses
+ * path-style addressing, since stand-ins rarely resolve bucket subdomains.
+ *
+ * Every client times its calls through {@link AwsSdkMetricsInterceptor}. Each has its own
+ * pool of {@code aws.http.max-connections} connections; with virtual threads the pool,
+ * not the thread count, is what caps concurrent calls, and {@link AwsConnectionLimiter}
+ * makes callers wait for a connection without pinning their carrier thread.
+ *
+ * DynamoDB and S3 also have non-blocking clients (Netty) for the request paths that
+ * return futures. The async S3 client splits large uploads into parts and sends them
+ * concurrently, using the same {@code s3.upload.*} threshold and part size as
+ * {@link com.example.orderservice.service.S3Service}'s blocking multipart upload.
+ */
 @Configuration
 public class AwsConfig {
 
+    private final Region region;
+    private final String dynamoDbEndpoint;
+    private final String s3Endpoint;
+    private final String snsEndpoint;
+    private final AwsSdkMetricsInterceptor metricsInterceptor;
+    private final int maxConnections;
+    private final Duration connectionAcquireTimeout;
+
+    public AwsConfig(MeterRegistry meterRegistry,
+                     @Value("${aws.region:ap-south-1}") String region,
+                     @Value("${aws.http.max-connections:50}") int maxConnections,
+                     @Value("${aws.http.connection-acquire-timeout-ms:10000}") long connectionAcquireTimeoutMillis,
+                     @Value("${aws.endpoint.dynamodb:}") String dynamoDbEndpoint,
+                     @Value("${aws.endpoint.s3:}") String s3Endpoint,
+                     @Value("${aws.endpoint.sns:}") String snsEndpoint) {
+        this.region = Region.of(region);
+        this.dynamoDbEndpoint = dynamoDbEndpoint;
+        this.s3Endpoint = s3Endpoint;
+        this.snsEndpoint = snsEndpoint;
+        this.metricsInterceptor = new AwsSdkMetricsInterceptor(meterRegistry);
+        this.maxConnections = maxConnections;
+        this.connectionAcquireTimeout = Duration.ofMillis(connectionAcquireTimeoutMillis);
+    }
+
     @Bean
     public S3Client s3Client() {
-        return S3Client.builder()
-                .region(Region.AP_SOUTH_1) // or AP_SOUTH_1 if you're using Mumbai
+        return configure(S3Client.builder(), s3Endpoint)
+                .forcePathStyle(!s3Endpoint.isBlank())
                 .build();
     }
 
     @Bean
-    public S3Presigner s3Presigner() {
-        return S3Presigner.builder()
-                .region(Region.AP_SOUTH_1)
+    public S3AsyncClient s3AsyncClient(@Value("${s3.upload.multipart-threshold-bytes:16777216}") long multipartThreshold,
+                                       @Value("${s3.upload.part-size-bytes:8388608}") long partSize) {
+        return configureAsync(S3AsyncClient.builder(), s3Endpoint)
+                .forcePathStyle(!s3Endpoint.isBlank())
+                .multipartEnabled(true)
+                .multipartConfiguration(c -> c.thresholdInBytes(multipartThreshold).minimumPartSizeInBytes(partSize))
                 .build();
     }
 
+    @Bean
+    public S3Presigner s3Presigner() {
+        S3Presigner.Builder builder = S3Presigner.builder().region(region);
+        if (!s3Endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(s3Endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
+    }
+
     @Bean
     public SnsClient snsClient() {
-        return SnsClient.builder()
-                .region(Region.AP_SOUTH_1)
-                .build();
+        return configure(SnsClient.builder(), snsEndpoint).build();
     }
 
     @Bean
     public DynamoDbClient dynamoDbClient() {
-        return DynamoDbClient.builder()
-                .region(Region.AP_SOUTH_1)
-                .build();
+        return configure(DynamoDbClient.builder(), dynamoDbEndpoint).build();
     }
 
     @Bean
@@ -47,4 +108,36 @@ public class AwsConfig {
                 .dynamoDbClient(dynamoDbClient)
                 .build();
     }
+
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        return configureAsync(DynamoDbAsyncClient.builder(), dynamoDbEndpoint).build();
+    }
+
+    private <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B configure(B builder, String endpoint) {
+        builder.httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionAcquisitionTimeout(connectionAcquireTimeout))
+                // Metrics first, so the timings include the wait for a connection
+                .overrideConfiguration(c -> c.addExecutionInterceptor(metricsInterceptor)
+                        .addExecutionInterceptor(new AwsConnectionLimiter(maxConnections, connectionAcquireTimeout)));
+        return withRegionAndEndpoint(builder, endpoint);
+    }
+
+    // Netty queues requests waiting for a connection without holding a thread, so no limiter
+    private <B extends AwsClientBuilder<B, ?> & AwsAsyncClientBuilder<B, ?>> B configureAsync(B builder, String endpoint) {
+        builder.httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .connectionAcquisitionTimeout(connectionAcquireTimeout))
+                .overrideConfiguration(c -> c.addExecutionInterceptor(metricsInterceptor));
+        return withRegionAndEndpoint(builder, endpoint);
+    }
+
+    private <B extends AwsClientBuilder<B, ?>> B withRegionAndEndpoint(B builder, String endpoint) {
+        builder.region(region);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder;
+    }
 }
@@ -0,0 +1,70 @@
+package com.example.orderservice.config;
+
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the calls one SDK client has in flight at the size of its connection pool, so
+ * callers queue here instead of in the pool. The Apache client waits for a free pooled
+ * connection inside a {@code synchronized} block, which pins a virtual thread to its
+ * carrier for as long as the pool stays exhausted; waiting on a semaphore unmounts it.
+ *
+ * Only valid for calls that return their connection before the call completes, i.e.
+ * not for streaming downloads, which keep it until the caller closes the stream.
+ */
+public class AwsConnectionLimiter implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Boolean> PERMIT = new ExecutionAttribute<>("OrderServiceConnectionPermit");
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public AwsConnectionLimiter(int maxConnections, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConnections);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.builder().message("Interrupted waiting for a connection").cause(e).build();
+        }
+        if (!acquired) {
+            throw SdkClientException.create("Timed out after " + acquireTimeout.toMillis() + " ms waiting for a connection");
+        }
+        attributes.putAttribute(PERMIT, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        release(attributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        release(attributes);
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void release(ExecutionAttributes attributes) {
+        if (Boolean.TRUE.equals(attributes.getAttribute(PERMIT))) {
+            attributes.putAttribute(PERMIT, Boolean.FALSE);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.orderservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every AWS SDK call as {@code aws.client.calls}, tagged with the service
+ * (DynamoDB, S3, SNS), the operation (PutItem, Query, PublishBatch, ...) and the outcome.
+ * The time covers the whole call including SDK retries, as the caller experiences it.
+ */
+public class AwsSdkMetricsInterceptor implements ExecutionInterceptor {
+
+    static final String METRIC = "aws.client.calls";
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("OrderServiceMetricsStartNanos");
+
+    private final MeterRegistry registry;
+    // service/operation/outcome -> timer, so the hot path is one map lookup
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AwsSdkMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(attributes, "success");
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes, "error");
+    }
+
+    private void record(ExecutionAttributes attributes, String outcome) {
+        Long start = attributes.getAttribute(START_NANOS);
+        if (start == null) {
+            return;
+        }
+        String service = attributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        timers.computeIfAbsent(service + '/' + operation + '/' + outcome, key -> Timer.builder(METRIC)
+                        .description("AWS SDK calls, including retries")
+                        .tag("service", String.valueOf(service))
+                        .tag("operation", String.valueOf(operation))
+                        .tag("outcome", outcome)
+                        .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.util.JsonCodecs;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Spring Boot's ObjectMapper gets the same settings as JsonCodecs.MAPPER, so request
+    // bodies and the shared readers and writers handle JSON alike
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jsonCodecsCustomizer() {
+        return builder -> builder.postConfigurer(JsonCodecs::configure);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.util.ProductItemListConverter;
+import com.example.orderservice.util.ProductItemListConverter.StorageFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Applies {@code orders.items.storage-format} (json or list) to the order item converter.
+ * DynamoDbOrderRepository depends on this bean by name, so the format is in place before
+ * the order table is set up.
+ */
+@Configuration("orderItemStorageConfig")
+public class OrderItemStorageConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemStorageConfig.class);
+
+    public OrderItemStorageConfig(@Value("${orders.items.storage-format:json}") String format) {
+        StorageFormat storageFormat = StorageFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        ProductItemListConverter.setWriteFormat(storageFormat);
+        log.info("Order items are written as {}", storageFormat);
+    }
+}
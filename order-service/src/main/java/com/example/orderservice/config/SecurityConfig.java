@@ -2,6 +2,7 @@
 package com.example.orderservice.config;
 
 import com.example.orderservice.security.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.web.SecurityFilterChain;
@@ -36,11 +37,17 @@ public class SecurityConfig {
                 .cors(withDefaults())
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (event stream, order list) finish on an ASYNC dispatch, and a
+                        // dropped client's error page is an INCLUDE/ERROR one; the JWT filter sees none of
+                        // these, but the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR, DispatcherType.INCLUDE).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/analytics/**").authenticated() 
                         .requestMatchers("/api/orders/**").authenticated()
                         .requestMatchers("/api/products/**").authenticated()
                         .requestMatchers("/health", "/").permitAll()
+                        // Load balancer health checks and the Prometheus scraper carry no token
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS));
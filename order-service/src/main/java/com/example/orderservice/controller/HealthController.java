@@ -1,15 +1,41 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.repository.OrderCache;
+import com.example.orderservice.security.JwtUtil;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.NotificationDispatcher;
+import com.example.orderservice.service.OrderEventBroadcaster;
+import com.example.orderservice.service.S3Service;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 public class HealthController {
 
+    private final OrderCache orderCache;
+    private final NotificationDispatcher notificationDispatcher;
+    private final JwtUtil jwtUtil;
+    private final OrderEventBroadcaster eventBroadcaster;
+    private final S3Service s3Service;
+    private final IdempotencyService idempotencyService;
+
+    public HealthController(OrderCache orderCache, NotificationDispatcher notificationDispatcher, JwtUtil jwtUtil,
+                            OrderEventBroadcaster eventBroadcaster, S3Service s3Service,
+                            IdempotencyService idempotencyService) {
+        this.orderCache = orderCache;
+        this.notificationDispatcher = notificationDispatcher;
+        this.jwtUtil = jwtUtil;
+        this.eventBroadcaster = eventBroadcaster;
+        this.s3Service = s3Service;
+        this.idempotencyService = idempotencyService;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> status = new HashMap<>();
@@ -19,8 +45,41 @@ public class HealthController {
         return ResponseEntity.ok(status);
     }
 
+    // Hit/miss/eviction counters of the in-process caches (authenticated, unlike /health)
+    @GetMapping("/health/caches")
+    public ResponseEntity<Map<String, Map<String, Object>>> caches() {
+        Map<String, Map<String, Object>> caches = new LinkedHashMap<>();
+        caches.put("orders", cacheStats(orderCache.stats(), orderCache.size()));
+        caches.put("jwt", cacheStats(jwtUtil.cacheStats(), jwtUtil.cacheSize()));
+        caches.put("presignedUrls", cacheStats(s3Service.presignCacheStats(), s3Service.presignCacheSize()));
+        caches.put("idempotency", cacheStats(idempotencyService.stats(), idempotencyService.size()));
+        return ResponseEntity.ok(caches);
+    }
+
+    // Queue depth plus published/retried/failed/dropped counters of the SNS dispatcher
+    @GetMapping("/health/notifications")
+    public ResponseEntity<Map<String, Long>> notifications() {
+        return ResponseEntity.ok(notificationDispatcher.stats());
+    }
+
+    // Connected event streams plus published/slow-consumer/rejected counters
+    @GetMapping("/health/events")
+    public ResponseEntity<Map<String, Long>> events() {
+        return ResponseEntity.ok(eventBroadcaster.stats());
+    }
+
     @GetMapping("/")
     public ResponseEntity<String> root() {
         return ResponseEntity.ok("Order Service is running!");
     }
-}
\ No newline at end of file
+
+    private static Map<String, Object> cacheStats(CacheStats stats, long size) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", size);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
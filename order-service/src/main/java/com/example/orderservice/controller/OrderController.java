@@ -1,132 +1,410 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.BulkIngestResultDTO;
+import com.example.orderservice.dto.OrderDetailsDTO;
+import com.example.orderservice.dto.OrderPageDTO;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.Product;
 import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.repository.OrderBatchWriter;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.OrderCreationPipeline;
+import com.example.orderservice.service.OrderEventBroadcaster;
+import com.example.orderservice.service.ProductCatalog;
 import com.example.orderservice.service.S3Service;
 import com.example.orderservice.service.SnsService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.orderservice.util.JsonCodecs;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final S3Service s3Service;
     private final SnsService snsService;
+    private final ObjectMapper objectMapper;
+    // Built once from the Spring mapper instead of resolving Order per call
+    private final ObjectReader orderReader;
+    private final ObjectWriter orderWriter;
+    private final OrderCreationPipeline creationPipeline;
+    private final OrderBatchWriter batchWriter;
+    private final ProductCatalog productCatalog;
+    private final OrderEventBroadcaster eventBroadcaster;
+    private final IdempotencyService idempotencyService;
+    private final boolean asyncCreateByDefault;
+    private final int maxRangeDays;
 
-    public OrderController(OrderRepository orderRepository, S3Service s3Service, SnsService snsService) {
+    public OrderController(OrderRepository orderRepository, S3Service s3Service, SnsService snsService,
+                           ObjectMapper objectMapper, OrderCreationPipeline creationPipeline,
+                           OrderBatchWriter batchWriter, ProductCatalog productCatalog,
+                           OrderEventBroadcaster eventBroadcaster, IdempotencyService idempotencyService,
+                           @Value("${orders.create.async-by-default:false}") boolean asyncCreateByDefault,
+                           @Value("${orders.range.max-days:31}") int maxRangeDays) {
         this.orderRepository = orderRepository;
         this.s3Service = s3Service;
         this.snsService = snsService;
+        this.objectMapper = objectMapper;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        this.creationPipeline = creationPipeline;
+        this.batchWriter = batchWriter;
+        this.productCatalog = productCatalog;
+        this.eventBroadcaster = eventBroadcaster;
+        this.idempotencyService = idempotencyService;
+        this.asyncCreateByDefault = asyncCreateByDefault;
+        this.maxRangeDays = maxRangeDays;
     }
 
+    /**
+     * Creates an order. The invoice upload starts as soon as the file is spooled and runs
+     * while the order is prepared; the response completes when both the upload and the
+     * save have, without a request thread waiting on either.
+     *
+     * With async=true the order is stored as PENDING and its ID returned with 202 straight
+     * away; the invoice upload and notification finish in the background and
+     * GET /api/orders/{id}/status reports the outcome.
+     *
+     * With an Idempotency-Key header, a retry of a request that succeeded gets the original
+     * response (and order ID) back without anything being redone, and a retry sent while
+     * the original is still running waits for it. Keys are per caller; reusing one with
+     * different parameters or another invoice file gets 422.
+     */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> createOrder(
+    public CompletableFuture<ResponseEntity<String>> createOrder(
             @RequestParam String customerName,
             @RequestParam Double amount,
             @RequestParam("items") String itemsJson,
-            @RequestPart("invoice") MultipartFile invoiceFile) {
+            @RequestPart("invoice") MultipartFile invoiceFile,
+            @RequestParam(required = false) Boolean async,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
 
+        if (idempotencyKey == null) {
+            return create(customerName, amount, itemsJson, invoiceFile, async);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Error: " + IdempotencyService.HEADER + " must be 1 to " + IdempotencyService.MAX_KEY_LENGTH + " characters"));
+        }
+        // The invoice is identified by name and size; hashing its content would mean reading it twice
+        String requestHash = IdempotencyService.requestHash(customerName, amount, itemsJson, async,
+                invoiceFile.getOriginalFilename(), invoiceFile.getSize());
+        return idempotencyService.execute(principal.getName(), idempotencyKey, requestHash,
+                () -> create(customerName, amount, itemsJson, invoiceFile, async));
+    }
+
+    private CompletableFuture<ResponseEntity<String>> create(String customerName, Double amount, String itemsJson,
+                                                             MultipartFile invoiceFile, Boolean async) {
+        String orderId = UUID.randomUUID().toString();
+        String invoiceKey = invoiceKey(orderId, invoiceFile);
+        Path spooledInvoice;
         try {
-            // Parse product items from JSON
-            ObjectMapper mapper = new ObjectMapper();
-            List<ProductItem> items = mapper.readValue(itemsJson, new TypeReference<List<ProductItem>>() {});
-
-            // Build Order
-            String orderId = UUID.randomUUID().toString();
-            Order order = new Order();
-            order.setOrderID(orderId);
-            order.setCustomerName(customerName);
-            order.setAmount(amount);
-            order.setItems(items);
-            order.setOrderDate(Instant.now().toString());
-
-            // Upload invoice to S3
-            String originalName = invoiceFile.getOriginalFilename();
-            String safeName = (originalName != null && !originalName.isBlank()) ? originalName : "invoice.pdf";
-            String sanitizedFilename = safeName.replaceAll("\\s+", "_");
-            String invoiceKey = "invoices/" + orderId + "_" + sanitizedFilename;
-
-            s3Service.uploadFile(invoiceKey, invoiceFile);
-            order.setInvoiceUrl(invoiceKey);
-
-            // Debug: confirm full order before save
-
-            // Save and notify
-            orderRepository.saveOrder(order);
-            snsService.publishOrderNotification(order);
-
-            return ResponseEntity.ok(orderId);
+            // The container deletes the request's copy once the response completes
+            spooledInvoice = creationPipeline.spool(invoiceFile);
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+            return CompletableFuture.completedFuture(creationFailed(customerName, e));
         }
-    }
 
-    @PutMapping(value = "/{orderId}/invoice", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> uploadInvoice(@PathVariable String orderId,
-                                                @RequestParam MultipartFile file) throws IOException {
-        Order existing = orderRepository.getOrder(orderId);
-        if (existing == null) {
-            return ResponseEntity.notFound().build();
+        if (async != null ? async : asyncCreateByDefault) {
+            Order order;
+            try {
+                order = newOrder(orderId, customerName, amount, itemsJson);
+            } catch (Exception e) {
+                creationPipeline.discard(spooledInvoice);
+                return CompletableFuture.completedFuture(creationFailed(customerName, e));
+            }
+            order.setStatus(OrderStatus.PENDING);
+            return orderRepository.saveOrderAsync(order).handle((saved, e) -> {
+                if (e != null) {
+                    creationPipeline.discard(spooledInvoice);
+                    return creationFailed(customerName, e);
+                }
+                eventBroadcaster.orderCreated(order);
+                creationPipeline.submit(order, invoiceKey, spooledInvoice, invoiceFile.getContentType());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(orderId);
+            });
         }
 
-        String originalName = file.getOriginalFilename();
-        String safeName = (originalName != null && !originalName.isBlank()) ? originalName : "invoice.pdf";
-        String sanitizedFilename = safeName.replaceAll("\\s+", "_");
+        CompletableFuture<String> upload = s3Service.uploadFileAsync(invoiceKey, spooledInvoice, invoiceFile.getContentType());
+        upload.whenComplete((url, e) -> creationPipeline.discard(spooledInvoice));
+        Order order;
+        try {
+            order = newOrder(orderId, customerName, amount, itemsJson);
+        } catch (Exception e) {
+            upload.cancel(true);
+            return CompletableFuture.completedFuture(creationFailed(customerName, e));
+        }
 
-        String invoiceKey = "invoices/" + orderId + "_" + sanitizedFilename;
+        return upload
+                .thenCompose(url -> {
+                    order.setInvoiceUrl(invoiceKey);
+                    order.setStatus(OrderStatus.COMPLETED);
+                    return orderRepository.saveOrderAsync(order);
+                })
+                .thenApply(saved -> {
+                    eventBroadcaster.orderCreated(order);
+                    snsService.publishOrderNotification(order);
+                    return ResponseEntity.ok(orderId);
+                })
+                .exceptionally(e -> creationFailed(customerName, e));
+    }
 
-        s3Service.uploadFile(invoiceKey, file);
-        existing.setInvoiceUrl(invoiceKey);
-        orderRepository.saveOrder(existing);
+    private static Order newOrder(String orderId, String customerName, Double amount, String itemsJson) throws IOException {
+        Order order = new Order();
+        order.setOrderID(orderId);
+        order.setCustomerName(customerName);
+        order.setAmount(amount);
+        order.setItems(JsonCodecs.PRODUCT_ITEMS_READER.readValue(itemsJson));
+        order.setOrderDate(Instant.now().toString());
+        return order;
+    }
 
-        return ResponseEntity.ok("Invoice uploaded");
+    private static ResponseEntity<String> creationFailed(String customerName, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Order creation failed for customer {}", customerName, cause);
+        return ResponseEntity.status(500).body("Error: " + cause.getMessage());
     }
 
-    @GetMapping
-    public List<Order> getAllOrders() {
-        return orderRepository.listOrders();
+    /**
+     * Imports existing orders (no invoice upload, no notification). Accepts a JSON array or
+     * NDJSON; the body is parsed incrementally and written in 25-item batches as it is read.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkIngestResultDTO> bulkIngest(InputStream body) throws IOException {
+        try (MappingIterator<Order> parsed = orderReader.readValues(body)) {
+            BulkIngestResultDTO result = batchWriter.writeAll(new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return parsed.hasNext();
+                }
+
+                @Override
+                public Order next() {
+                    Order order = parsed.next();
+                    if (order.getOrderID() == null || order.getOrderID().isBlank()) {
+                        order.setOrderID(UUID.randomUUID().toString());
+                    }
+                    if (order.getOrderDate() == null) {
+                        order.setOrderDate(Instant.now().toString());
+                    }
+                    if (order.getStatus() == null) {
+                        order.setStatus(OrderStatus.COMPLETED);
+                    }
+                    return order;
+                }
+            });
+            return result.getError() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        }
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable String id) {
-        Order order = orderRepository.getOrder(id);
+    @PutMapping(value = "/{orderId}/invoice", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<String>> uploadInvoice(@PathVariable String orderId,
+                                                                   @RequestParam MultipartFile file) throws IOException {
+        String invoiceKey = invoiceKey(orderId, file);
+        Path spooledInvoice = creationPipeline.spool(file);
+
+        CompletableFuture<ResponseEntity<String>> response = orderRepository.getOrderAsync(orderId).thenCompose(existing -> {
+            if (existing == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.<String>notFound().build());
+            }
+            return s3Service.uploadFileAsync(invoiceKey, spooledInvoice, file.getContentType())
+                    .thenCompose(url -> {
+                        existing.setInvoiceUrl(invoiceKey);
+                        return orderRepository.saveOrderAsync(existing);
+                    })
+                    .thenApply(saved -> {
+                        eventBroadcaster.orderUpdated(existing);
+                        return ResponseEntity.ok("Invoice uploaded");
+                    });
+        });
+        response.whenComplete((result, e) -> creationPipeline.discard(spooledInvoice));
+        return response;
+    }
+
+    /**
+     * Server-Sent Events stream of order-created, order-updated and counters events,
+     * for dashboards that would otherwise poll this list and the analytics endpoints.
+     * Returns 503 when the subscriber limit is reached.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        SseEmitter emitter = eventBroadcaster.subscribe();
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    // Streams the JSON array page by page, so memory use does not grow with the table
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getAllOrders() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                orderRepository.forEachPage(page -> {
+                    try {
+                        for (Order order : page) {
+                            orderWriter.writeValue(generator, order);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
-        // Debug: check what’s returned
+    @GetMapping("/page")
+    public ResponseEntity<OrderPageDTO> getOrdersPage(@RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                      @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            System.out.println("Fetched Order: " + new ObjectMapper().writeValueAsString(order));
-        } catch (Exception e) {
-            e.printStackTrace();
+            return ResponseEntity.ok(orderRepository.findPage(limit, cursor));
+        } catch (IllegalArgumentException e) {
+            // Cursor was not produced by us or has been tampered with
+            return ResponseEntity.badRequest().build();
         }
+    }
 
-        return order != null ? ResponseEntity.ok(order) : ResponseEntity.notFound().build();
+    /**
+     * Orders placed in [from, to), read from the orderDay index one day per Query.
+     * Both bounds are ISO-8601 instants, e.g. 2024-05-01T00:00:00Z.
+     */
+    @GetMapping("/range")
+    public ResponseEntity<List<Order>> getOrdersBetween(@RequestParam Instant from, @RequestParam Instant to) {
+        if (!from.isBefore(to) || Duration.between(from, to).toDays() >= maxRangeDays) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderRepository.findOrdersBetween(from, to));
     }
 
-    @GetMapping("/{id}/invoice-url")
-    public ResponseEntity<String> getInvoiceDownloadUrl(@PathVariable String id) {
+    // One-off migration for orders stored before the orderDay index existed
+    @PostMapping("/backfill-order-day")
+    public Map<String, Long> backfillOrderDays() {
+        return Map.of("ordersUpdated", orderRepository.backfillOrderDays());
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Order>> getOrderById(@PathVariable String id) {
+        return orderRepository.getOrderAsync(id)
+                .thenApply(order -> order != null ? ResponseEntity.ok(order) : ResponseEntity.notFound().build());
+    }
+
+    // Product names and categories for every line item, resolved in one batch lookup.
+    // Stays blocking: the catalog's batch lookup retries with backoff on the calling thread
+    @GetMapping("/{id}/details")
+    public ResponseEntity<OrderDetailsDTO> getOrderDetails(@PathVariable String id) {
         Order order = orderRepository.getOrder(id);
-        if (order == null || order.getInvoiceUrl() == null) {
+        if (order == null) {
             return ResponseEntity.notFound().build();
         }
+        List<ProductItem> items = order.getItems() != null ? order.getItems() : List.of();
+        Map<String, Product> products = productCatalog.getProductsByIds(
+                items.stream().map(ProductItem::getProductId).toList());
+        return ResponseEntity.ok(new OrderDetailsDTO(order, products));
+    }
+
+    @GetMapping("/{id}/invoice-url")
+    public CompletableFuture<ResponseEntity<String>> getInvoiceDownloadUrl(@PathVariable String id) {
+        return orderRepository.getOrderAsync(id).thenApply(order -> {
+            if (order == null || order.getInvoiceUrl() == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String key = order.getInvoiceUrl();
+            if (!key.startsWith("invoices/")) {
+                return ResponseEntity.status(500).body("Invalid invoice key format");
+            }
+
+            String freshUrl = s3Service.generatePresignedUrl(key);
+            return ResponseEntity.ok(freshUrl);
+        });
+    }
 
-        String key = order.getInvoiceUrl();
-        if (!key.startsWith("invoices/")) {
-            return ResponseEntity.status(500).body("Invalid invoice key format");
+    /**
+     * Invoice download URLs for many orders in one call, e.g. a page of the order list:
+     * ?ids=a,b,c returns {"a": url, ...}. Orders are read in batches; those that don't
+     * exist, have no invoice or could not be read are left out. URLs come from S3Service's
+     * presign cache; misses are signed in parallel.
+     */
+    @GetMapping("/invoice-urls")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getInvoiceDownloadUrls(@RequestParam List<String> ids) {
+        List<String> distinct = ids.stream().filter(id -> !id.isBlank()).distinct().toList();
+        if (distinct.isEmpty() || distinct.size() > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        return orderRepository.getOrdersAsync(distinct).thenApply(orders -> {
+            Map<String, String> keysByOrder = new LinkedHashMap<>();
+            for (String id : distinct) {
+                Order order = orders.get(id);
+                if (order != null && order.getInvoiceUrl() != null && order.getInvoiceUrl().startsWith("invoices/")) {
+                    keysByOrder.put(id, order.getInvoiceUrl());
+                }
+            }
+            Map<String, String> urls = s3Service.generatePresignedUrls(keysByOrder.values());
+            Map<String, String> body = new LinkedHashMap<>();
+            keysByOrder.forEach((orderId, key) -> body.put(orderId, urls.get(key)));
+            return ResponseEntity.ok(body);
+        });
+    }
+
+    @GetMapping("/{id}/status")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getOrderStatus(@PathVariable String id) {
+        return orderRepository.getOrderAsync(id).thenApply(order -> {
+            if (order == null) {
+                return ResponseEntity.notFound().build();
+            }
+            Map<String, String> body = new LinkedHashMap<>();
+            body.put("orderID", order.getOrderID());
+            // Orders created before statuses existed were always completed synchronously
+            body.put("status", (order.getStatus() != null ? order.getStatus() : OrderStatus.COMPLETED).name());
+            return ResponseEntity.ok(body);
+        });
+    }
 
-        String freshUrl = s3Service.generatePresignedUrl(key);
-        return ResponseEntity.ok(freshUrl);
+    private static String invoiceKey(String orderId, MultipartFile file) {
+        String originalName = file.getOriginalFilename();
+        String safeName = (originalName != null && !originalName.isBlank()) ? originalName : "invoice.pdf";
+        String sanitizedFilename = safeName.replaceAll("\\s+", "_");
+        return "invoices/" + orderId + "_" + sanitizedFilename;
     }
 }
@@ -1,34 +1,41 @@
 package com.example.orderservice.controller;
 
 import com.example.orderservice.model.Product;
-import com.example.orderservice.service.ProductService;
+import com.example.orderservice.service.ProductCatalog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
-    private final ProductService productService;
+    private final ProductCatalog productCatalog;
 
-    public ProductController(ProductService productService) {
-        this.productService = productService;
+    public ProductController(ProductCatalog productCatalog) {
+        this.productCatalog = productCatalog;
     }
 
+    // Futures complete on the AWS SDK's threads; no request thread waits on DynamoDB
     @PostMapping
-    public Product createProduct(@RequestBody Product product) {
-        return productService.createProduct(product);
+    public CompletableFuture<Product> createProduct(@RequestBody Product product) {
+        return productCatalog.createProductAsync(product);
     }
 
+    // Served from the catalog snapshot's pre-serialized JSON
     @GetMapping
-    public List<Product> getAll() {
-        return productService.getAllProducts();
+    public ResponseEntity<byte[]> getAll() throws JsonProcessingException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productCatalog.getAllProductsJson());
     }
 
     @GetMapping("/{id}")
-    public Product getById(@PathVariable String id) {
-        return productService.getProductById(id).orElse(null);
+    public CompletableFuture<Product> getById(@PathVariable String id) {
+        return productCatalog.getProductByIdAsync(id).thenApply(product -> product.orElse(null));
     }
     
 }
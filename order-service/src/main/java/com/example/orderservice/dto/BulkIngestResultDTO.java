@@ -0,0 +1,108 @@
+package com.example.orderservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResultDTO {
+    private long ordersWritten;
+    private long ordersFailed;
+    private long elapsedMillis;
+    private double ordersPerSecond;
+    private String error;
+    private List<BatchStats> batches = new ArrayList<>();
+
+    public long getOrdersWritten() {
+        return ordersWritten;
+    }
+
+    public void setOrdersWritten(long ordersWritten) {
+        this.ordersWritten = ordersWritten;
+    }
+
+    public long getOrdersFailed() {
+        return ordersFailed;
+    }
+
+    public void setOrdersFailed(long ordersFailed) {
+        this.ordersFailed = ordersFailed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getOrdersPerSecond() {
+        return ordersPerSecond;
+    }
+
+    public void setOrdersPerSecond(double ordersPerSecond) {
+        this.ordersPerSecond = ordersPerSecond;
+    }
+
+    // Set when the input could not be parsed; orders before that point were still written
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<BatchStats> getBatches() {
+        return batches;
+    }
+
+    public void setBatches(List<BatchStats> batches) {
+        this.batches = batches;
+    }
+
+    public static class BatchStats {
+        private int batch;
+        private int items;
+        private int unprocessed;
+        private int attempts;
+        private long millis;
+        private double itemsPerSecond;
+
+        public BatchStats() {
+        }
+
+        public BatchStats(int batch, int items, int unprocessed, int attempts, long millis) {
+            this.batch = batch;
+            this.items = items;
+            this.unprocessed = unprocessed;
+            this.attempts = attempts;
+            this.millis = millis;
+            this.itemsPerSecond = millis > 0 ? (items - unprocessed) * 1000.0 / millis : 0;
+        }
+
+        public int getBatch() {
+            return batch;
+        }
+
+        public int getItems() {
+            return items;
+        }
+
+        // Items still unprocessed after the last retry
+        public int getUnprocessed() {
+            return unprocessed;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public double getItemsPerSecond() {
+            return itemsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.orderservice.dto;
+
+/**
+ * Change to the analytics summary caused by one new order, pushed to dashboards
+ * so they can update their counters without re-reading them.
+ */
+public class OrderCountersDeltaDTO {
+    private String day;
+    private long orders;
+    private double amount;
+
+    public OrderCountersDeltaDTO() {
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+}
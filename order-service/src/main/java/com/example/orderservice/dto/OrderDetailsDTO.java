@@ -0,0 +1,169 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.Product;
+import com.example.orderservice.model.ProductItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An order with its line items resolved against the product catalog.
+ */
+public class OrderDetailsDTO {
+    private String orderID;
+    private String customerName;
+    private Double amount;
+    private String orderDate;
+    private OrderStatus status;
+    private String invoiceUrl;
+    private List<LineItem> items;
+
+    public OrderDetailsDTO() {
+    }
+
+    public OrderDetailsDTO(Order order, Map<String, Product> products) {
+        this.orderID = order.getOrderID();
+        this.customerName = order.getCustomerName();
+        this.amount = order.getAmount();
+        this.orderDate = order.getOrderDate();
+        this.status = order.getStatus();
+        this.invoiceUrl = order.getInvoiceUrl();
+        this.items = new ArrayList<>();
+        if (order.getItems() != null) {
+            for (ProductItem item : order.getItems()) {
+                items.add(new LineItem(item, products.get(item.getProductId())));
+            }
+        }
+    }
+
+    public String getOrderID() {
+        return orderID;
+    }
+
+    public void setOrderID(String orderID) {
+        this.orderID = orderID;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(String orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getInvoiceUrl() {
+        return invoiceUrl;
+    }
+
+    public void setInvoiceUrl(String invoiceUrl) {
+        this.invoiceUrl = invoiceUrl;
+    }
+
+    public List<LineItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LineItem> items) {
+        this.items = items;
+    }
+
+    public static class LineItem {
+        private String productId;
+        private int quantity;
+        private double unitPrice;
+        private double lineTotal;
+        // null when the product no longer exists
+        private String name;
+        private String category;
+
+        public LineItem() {
+        }
+
+        public LineItem(ProductItem item, Product product) {
+            this.productId = item.getProductId();
+            this.quantity = item.getQuantity();
+            this.unitPrice = item.getUnitPrice();
+            this.lineTotal = item.getQuantity() * item.getUnitPrice();
+            if (product != null) {
+                this.name = product.getName();
+                this.category = product.getCategory();
+            }
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public double getUnitPrice() {
+            return unitPrice;
+        }
+
+        public void setUnitPrice(double unitPrice) {
+            this.unitPrice = unitPrice;
+        }
+
+        public double getLineTotal() {
+            return lineTotal;
+        }
+
+        public void setLineTotal(double lineTotal) {
+            this.lineTotal = lineTotal;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+    }
+}
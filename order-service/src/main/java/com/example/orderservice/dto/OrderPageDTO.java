@@ -0,0 +1,35 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Order;
+
+import java.util.List;
+
+public class OrderPageDTO {
+    private List<Order> items;
+    private String nextCursor;
+
+    public OrderPageDTO() {
+    }
+
+    public OrderPageDTO(List<Order> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Order> items) {
+        this.items = items;
+    }
+
+    // null when there are no more pages
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
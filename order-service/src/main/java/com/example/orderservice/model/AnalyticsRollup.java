@@ -0,0 +1,78 @@
+package com.example.orderservice.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Pre-aggregated analytics counters, kept up to date as orders are written.
+ *
+ * rollupType groups the rollups ("DAY", "PRODUCT", "TOTAL") so each kind can be
+ * read back with a single Query; rollupId is the day (yyyy-MM-dd), the productId
+ * or "ALL" respectively.
+ */
+@DynamoDbBean
+public class AnalyticsRollup {
+
+    public static final String TYPE_DAY = "DAY";
+    public static final String TYPE_PRODUCT = "PRODUCT";
+    public static final String TYPE_TOTAL = "TOTAL";
+    public static final String TOTAL_ID = "ALL";
+
+    private String rollupType;
+    private String rollupId;
+    private Long orderCount;
+    private Long quantity;
+    private Double revenue;
+    private Long distinctProducts;
+
+    @DynamoDbPartitionKey
+    public String getRollupType() {
+        return rollupType;
+    }
+
+    public void setRollupType(String rollupType) {
+        this.rollupType = rollupType;
+    }
+
+    @DynamoDbSortKey
+    public String getRollupId() {
+        return rollupId;
+    }
+
+    public void setRollupId(String rollupId) {
+        this.rollupId = rollupId;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Double revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getDistinctProducts() {
+        return distinctProducts;
+    }
+
+    public void setDistinctProducts(Long distinctProducts) {
+        this.distinctProducts = distinctProducts;
+    }
+}
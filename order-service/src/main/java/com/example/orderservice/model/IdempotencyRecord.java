@@ -0,0 +1,13 @@
+package com.example.orderservice.model;
+
+/**
+ * What is stored for a request made with an {@code Idempotency-Key}: the response of the
+ * attempt that completed it, or nothing yet while that attempt is still in progress, and
+ * a hash of the request's parameters to tell a retry from a different request reusing the key.
+ */
+public record IdempotencyRecord(boolean completed, int httpStatus, String body, String requestHash) {
+
+    public static IdempotencyRecord inProgress(String requestHash) {
+        return new IdempotencyRecord(false, 0, null, requestHash);
+    }
+}
@@ -2,6 +2,10 @@ package com.example.orderservice.model;
 
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.ArrayList;
 import java.util.List;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import com.example.orderservice.util.ProductItemListConverter;
@@ -10,12 +14,17 @@ import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 @DynamoDbBean
 public class Order {
 
+    // GSI for time-window reads: partition by UTC day, sort by the full timestamp
+    public static final String ORDER_DAY_INDEX = "orderDay-orderDate-index";
+
     private String orderID;
     private String customerName;
     private Double amount;
     private String invoiceUrl;
     private String orderDate;
     private List<ProductItem> items;
+    private OrderStatus status;
+    private String orderDay;
 
     @DynamoDbPartitionKey
     public String getOrderID() {
@@ -50,6 +59,7 @@ public class Order {
         this.invoiceUrl = invoiceUrl;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = ORDER_DAY_INDEX)
     public String getOrderDate() {
         return orderDate;
     }
@@ -67,6 +77,48 @@ public class Order {
         this.items = items;
     }
 
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * The yyyy-MM-dd (UTC) day bucket of orderDate. Derived when not set, so every
+     * save writes it and the order shows up in the day index.
+     */
+    @JsonIgnore
+    @DynamoDbSecondaryPartitionKey(indexNames = ORDER_DAY_INDEX)
+    public String getOrderDay() {
+        if (orderDay == null && orderDate != null && orderDate.length() >= 10) {
+            return orderDate.substring(0, 10);
+        }
+        return orderDay;
+    }
+
+    public void setOrderDay(String orderDay) {
+        this.orderDay = orderDay;
+    }
+
+    /**
+     * A copy that can be modified without affecting {@code source}. Items are not
+     * modified once an order is built, so only the list itself is copied.
+     */
+    public static Order copyOf(Order source) {
+        Order order = new Order();
+        order.setOrderID(source.getOrderID());
+        order.setCustomerName(source.getCustomerName());
+        order.setAmount(source.getAmount());
+        order.setInvoiceUrl(source.getInvoiceUrl());
+        order.setOrderDate(source.getOrderDate());
+        order.setItems(source.getItems() != null ? new ArrayList<>(source.getItems()) : null);
+        order.setStatus(source.getStatus());
+        order.setOrderDay(source.orderDay);
+        return order;
+    }
+
     public static TableSchema<Order> getTableSchema() {
     return TableSchema.fromBean(Order.class);
 }
@@ -0,0 +1,10 @@
+package com.example.orderservice.model;
+
+import java.util.List;
+
+/**
+ * The attributes of an order that the sales rollups need, read with a projection
+ * expression instead of mapping the full {@link Order} bean.
+ */
+public record OrderSalesRecord(String orderID, String orderDate, List<ProductItem> items) {
+}
@@ -0,0 +1,8 @@
+package com.example.orderservice.model;
+
+public enum OrderStatus {
+    // Accepted and stored; invoice upload and notification still running in the background
+    PENDING,
+    COMPLETED,
+    FAILED
+}
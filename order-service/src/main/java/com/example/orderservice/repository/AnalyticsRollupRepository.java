@@ -0,0 +1,40 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.AnalyticsRollup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for the pre-aggregated analytics rollups, keyed by (rollupType, rollupId).
+ */
+public interface AnalyticsRollupRepository {
+
+    /**
+     * Atomically adds the given deltas (by attribute name: orderCount, quantity,
+     * revenue, distinctProducts) to a rollup, creating it if needed.
+     *
+     * @return true if the rollup did not exist before this update
+     */
+    boolean increment(String rollupType, String rollupId, Map<String, Number> deltas);
+
+    /**
+     * Non-blocking {@link #increment}, for callers on an async completion thread.
+     */
+    CompletableFuture<Boolean> incrementAsync(String rollupType, String rollupId, Map<String, Number> deltas);
+
+    Optional<AnalyticsRollup> get(String rollupType, String rollupId);
+
+    List<AnalyticsRollup> findByType(String rollupType);
+
+    /**
+     * Rollups of one type with {@code fromId <= rollupId <= toId}, in rollupId order.
+     */
+    List<AnalyticsRollup> findRange(String rollupType, String fromId, String toId);
+
+    void put(AnalyticsRollup rollup);
+
+    void delete(String rollupType, String rollupId);
+}
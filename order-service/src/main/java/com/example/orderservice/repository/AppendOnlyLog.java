@@ -0,0 +1,138 @@
+package com.example.orderservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Newline-delimited JSON file that records every write of the in-memory stores.
+ * Replaying it in order and keeping the last version per key restores the store;
+ * {@link #compact} then rewrites the file with only those live records.
+ */
+class AppendOnlyLog<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AppendOnlyLog.class);
+
+    private final Path file;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter out;
+
+    AppendOnlyLog(Path file, ObjectReader reader, ObjectWriter writer) {
+        this.file = file;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    /**
+     * Reads every record in write order. A partially written last line (e.g. after a
+     * crash) is skipped.
+     */
+    List<T> replay() {
+        List<T> records = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    records.add(reader.readValue(line));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable record at {}:{}", file, lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay " + file, e);
+        }
+        return records;
+    }
+
+    /**
+     * Replaces the file with just the given records, then opens it for appending.
+     */
+    void compact(Collection<T> live) {
+        lock.lock();
+        try {
+            closeWriter();
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter compacted = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (T record : live) {
+                    compacted.write(writer.writeValueAsString(record));
+                    compacted.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one record. It reaches the OS before this returns but is not fsynced.
+     */
+    void append(T record) {
+        String json;
+        try {
+            json = writer.writeValueAsString(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lock.lock();
+        try {
+            out.write(json);
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            log.warn("Failed to close {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
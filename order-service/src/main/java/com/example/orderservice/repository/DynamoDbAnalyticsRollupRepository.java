@@ -0,0 +1,117 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.AnalyticsRollup;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@Repository
+@Profile("!local")
+public class DynamoDbAnalyticsRollupRepository implements AnalyticsRollupRepository {
+
+    static final String TABLE_NAME = "order_rollups";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbTable<AnalyticsRollup> rollupTable;
+
+    public DynamoDbAnalyticsRollupRepository(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+        this.rollupTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(AnalyticsRollup.class));
+    }
+
+    // A single UpdateItem "ADD"; UPDATED_OLD tells whether the item existed before
+    @Override
+    public boolean increment(String rollupType, String rollupId, Map<String, Number> deltas) {
+        return created(dynamoDbClient.updateItem(incrementRequest(rollupType, rollupId, deltas)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> incrementAsync(String rollupType, String rollupId, Map<String, Number> deltas) {
+        return dynamoDbAsyncClient.updateItem(incrementRequest(rollupType, rollupId, deltas))
+                .thenApply(DynamoDbAnalyticsRollupRepository::created);
+    }
+
+    private static UpdateItemRequest incrementRequest(String rollupType, String rollupId, Map<String, Number> deltas) {
+        StringBuilder expression = new StringBuilder("ADD ");
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, Number> delta : deltas.entrySet()) {
+            if (i > 0) {
+                expression.append(", ");
+            }
+            expression.append("#a").append(i).append(" :v").append(i);
+            names.put("#a" + i, delta.getKey());
+            values.put(":v" + i, AttributeValue.fromN(delta.getValue().toString()));
+            i++;
+        }
+
+        return UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of(
+                        "rollupType", AttributeValue.fromS(rollupType),
+                        "rollupId", AttributeValue.fromS(rollupId)))
+                .updateExpression(expression.toString())
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .returnValues(ReturnValue.UPDATED_OLD)
+                .build();
+    }
+
+    private static boolean created(UpdateItemResponse response) {
+        return !response.hasAttributes() || response.attributes().isEmpty();
+    }
+
+    @Override
+    public Optional<AnalyticsRollup> get(String rollupType, String rollupId) {
+        return Optional.ofNullable(rollupTable.getItem(r -> r.key(k -> k.partitionValue(rollupType).sortValue(rollupId))));
+    }
+
+    @Override
+    public List<AnalyticsRollup> findByType(String rollupType) {
+        return query(QueryConditional.keyEqualTo(k -> k.partitionValue(rollupType)));
+    }
+
+    @Override
+    public List<AnalyticsRollup> findRange(String rollupType, String fromId, String toId) {
+        return query(QueryConditional.sortBetween(
+                k -> k.partitionValue(rollupType).sortValue(fromId),
+                k -> k.partitionValue(rollupType).sortValue(toId)));
+    }
+
+    @Override
+    public void put(AnalyticsRollup rollup) {
+        rollupTable.putItem(rollup);
+    }
+
+    @Override
+    public void delete(String rollupType, String rollupId) {
+        rollupTable.deleteItem(r -> r.key(k -> k.partitionValue(rollupType).sortValue(rollupId)));
+    }
+
+    private List<AnalyticsRollup> query(QueryConditional conditional) {
+        List<AnalyticsRollup> rollups = new ArrayList<>();
+        rollupTable.query(conditional).items().forEach(rollups::add);
+        return rollups;
+    }
+}
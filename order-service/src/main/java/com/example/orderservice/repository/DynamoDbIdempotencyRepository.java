@@ -0,0 +1,145 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.IdempotencyRecord;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One item per key in the {@code order_idempotency} table, with the hash of the request
+ * that claimed it. {@code expiresAt} is in epoch
+ * seconds so it can be the table's TTL attribute; until DynamoDB gets round to deleting
+ * an expired item, claims treat it as absent.
+ */
+@Repository
+@Profile("!local")
+public class DynamoDbIdempotencyRepository implements IdempotencyRepository {
+
+    static final String TABLE_NAME = "order_idempotency";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+    // "state", "status" and "body" are all DynamoDB reserved words
+    private static final Map<String, String> NAMES = Map.of("#state", "state", "#status", "httpStatus", "#body", "body");
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    public DynamoDbIdempotencyRepository(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+    }
+
+    // A conditional PutItem; on failure DynamoDB returns the item that was in the way
+    @Override
+    public CompletableFuture<IdempotencyRecord> claim(String key, String claimId, String requestHash,
+                                                      Instant leaseUntil, Instant expiresAt) {
+        Instant now = Instant.now();
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .item(Map.of(
+                        "idempotencyKey", AttributeValue.fromS(key),
+                        "state", AttributeValue.fromS(IN_PROGRESS),
+                        "claimId", AttributeValue.fromS(claimId),
+                        "requestHash", AttributeValue.fromS(requestHash),
+                        "leaseUntil", AttributeValue.fromN(Long.toString(leaseUntil.toEpochMilli())),
+                        "expiresAt", AttributeValue.fromN(Long.toString(expiresAt.getEpochSecond()))))
+                .conditionExpression("attribute_not_exists(idempotencyKey) OR expiresAt < :nowSeconds"
+                        + " OR (#state = :inProgress AND leaseUntil < :nowMillis)")
+                .expressionAttributeNames(Map.of("#state", "state"))
+                .expressionAttributeValues(Map.of(
+                        ":nowSeconds", AttributeValue.fromN(Long.toString(now.getEpochSecond())),
+                        ":nowMillis", AttributeValue.fromN(Long.toString(now.toEpochMilli())),
+                        ":inProgress", AttributeValue.fromS(IN_PROGRESS)))
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+        return dynamoDbAsyncClient.putItem(request)
+                .<IdempotencyRecord>thenApply(response -> null)
+                .exceptionallyCompose(e -> {
+                    if (!(unwrap(e) instanceof ConditionalCheckFailedException failed)) {
+                        return CompletableFuture.failedFuture(unwrap(e));
+                    }
+                    if (failed.hasItem()) {
+                        return CompletableFuture.completedFuture(toRecord(failed.item()));
+                    }
+                    // Stand-ins such as DynamoDB Local don't return the item; read it, and claim
+                    // again if it has gone in the meantime
+                    return find(key).thenCompose(existing -> existing != null
+                            ? CompletableFuture.completedFuture(existing)
+                            : claim(key, claimId, requestHash, leaseUntil, expiresAt));
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> complete(String key, String claimId, IdempotencyRecord record, Instant expiresAt) {
+        return dynamoDbAsyncClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("idempotencyKey", AttributeValue.fromS(key)))
+                        .updateExpression("SET #state = :completed, #status = :status, #body = :body, expiresAt = :expiresAt"
+                                + " REMOVE leaseUntil")
+                        .conditionExpression("claimId = :claimId")
+                        .expressionAttributeNames(NAMES)
+                        .expressionAttributeValues(Map.of(
+                                ":completed", AttributeValue.fromS(COMPLETED),
+                                ":status", AttributeValue.fromN(Integer.toString(record.httpStatus())),
+                                ":body", AttributeValue.fromS(record.body() != null ? record.body() : ""),
+                                ":expiresAt", AttributeValue.fromN(Long.toString(expiresAt.getEpochSecond())),
+                                ":claimId", AttributeValue.fromS(claimId)))
+                        .build())
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> release(String key, String claimId) {
+        return dynamoDbAsyncClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("idempotencyKey", AttributeValue.fromS(key)))
+                        .conditionExpression("claimId = :claimId AND #state = :inProgress")
+                        .expressionAttributeNames(Map.of("#state", "state"))
+                        .expressionAttributeValues(Map.of(
+                                ":claimId", AttributeValue.fromS(claimId),
+                                ":inProgress", AttributeValue.fromS(IN_PROGRESS)))
+                        .build())
+                .<Void>thenApply(response -> null)
+                .exceptionallyCompose(e -> unwrap(e) instanceof ConditionalCheckFailedException
+                        // Taken over by another attempt since
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.failedFuture(unwrap(e)));
+    }
+
+    private CompletableFuture<IdempotencyRecord> find(String key) {
+        return dynamoDbAsyncClient.getItem(GetItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("idempotencyKey", AttributeValue.fromS(key)))
+                        .consistentRead(true)
+                        .build())
+                .thenApply(response -> response.hasItem() && !response.item().isEmpty() ? toRecord(response.item()) : null);
+    }
+
+    static IdempotencyRecord toRecord(Map<String, AttributeValue> item) {
+        AttributeValue hash = item.get("requestHash");
+        String requestHash = hash != null ? hash.s() : null;
+        AttributeValue state = item.get("state");
+        if (state == null || !COMPLETED.equals(state.s())) {
+            return IdempotencyRecord.inProgress(requestHash);
+        }
+        AttributeValue status = item.get("httpStatus");
+        AttributeValue body = item.get("body");
+        return new IdempotencyRecord(true, status != null ? Integer.parseInt(status.n()) : 200,
+                body != null ? body.s() : null, requestHash);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
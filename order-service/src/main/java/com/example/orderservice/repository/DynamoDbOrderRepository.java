@@ -0,0 +1,434 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.OrderPageDTO;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSalesRecord;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import com.example.orderservice.util.PageCursorCodec;
+import com.example.orderservice.util.ProductItemListConverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Repository
+@Profile("!local")
+// The item storage format must be set before the table schemas are built or any order is written
+@DependsOn("orderItemStorageConfig")
+public class DynamoDbOrderRepository implements OrderRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbOrderRepository.class);
+    private static final String TABLE_NAME = "orders";
+    // BatchGetItem accepts at most 100 keys per request
+    private static final int BATCH_GET_SIZE = 100;
+    private static final int BATCH_GET_MAX_ATTEMPTS = 5;
+    private static final long BATCH_GET_BACKOFF_MILLIS = 50;
+    // Decodes both item formats (JSON string and native list)
+    private static final ProductItemListConverter ITEMS_CONVERTER = new ProductItemListConverter();
+    // orderDate prefixes used as sort key bounds, e.g. 2024-05-01T10:15:30
+    private static final DateTimeFormatter SORT_KEY_PREFIX =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<Order> orderTable;
+    private final DynamoDbIndex<Order> orderDayIndex;
+    private final DynamoDbAsyncTable<Order> asyncOrderTable;
+    private final OrderAnalyticsAggregator analyticsAggregator;
+    private final ParallelScanner parallelScanner;
+    private final OrderCache orderCache;
+    private final int scanSegments;
+
+    public DynamoDbOrderRepository(DynamoDbClient dynamoDbClient,
+                                   DynamoDbAsyncClient dynamoDbAsyncClient,
+                                   OrderAnalyticsAggregator analyticsAggregator,
+                                   ParallelScanner parallelScanner,
+                                   OrderCache orderCache,
+                                   @Value("${dynamodb.scan.segments.orders:4}") int scanSegments) {
+        this.enhancedClient = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.orderTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(Order.class));
+        this.orderDayIndex = orderTable.index(Order.ORDER_DAY_INDEX);
+        this.asyncOrderTable = DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build()
+                .table(TABLE_NAME, TableSchema.fromBean(Order.class));
+        this.analyticsAggregator = analyticsAggregator;
+        this.parallelScanner = parallelScanner;
+        this.orderCache = orderCache;
+        this.scanSegments = scanSegments;
+    }
+
+    @Override
+    public void saveOrder(Order order) {
+        Order previous = orderTable.putItemWithResponse(PutItemEnhancedRequest.builder(Order.class)
+                        .item(order)
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build())
+                .attributes();
+        orderCache.put(order);
+        updateRollups(previous, order);
+    }
+
+    // The rollup ADDs go through the async client too, so nothing blocks the SDK's completion threads
+    @Override
+    public CompletableFuture<Void> saveOrderAsync(Order order) {
+        return asyncOrderTable.putItemWithResponse(PutItemEnhancedRequest.builder(Order.class)
+                        .item(order)
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build())
+                .thenCompose(response -> {
+                    orderCache.put(order);
+                    return updateRollupsAsync(response.attributes(), order);
+                });
+    }
+
+    // The order itself is already stored; a failed rollup update is repaired by a rebuild.
+    private void updateRollups(Order previous, Order order) {
+        try {
+            analyticsAggregator.onOrderSaved(previous, order);
+        } catch (Exception e) {
+            log.error("Failed to update analytics rollups for order {}", order.getOrderID(), e);
+        }
+    }
+
+    private CompletableFuture<Void> updateRollupsAsync(Order previous, Order order) {
+        CompletableFuture<Void> update;
+        try {
+            update = analyticsAggregator.onOrderSavedAsync(previous, order);
+        } catch (Exception e) {
+            update = CompletableFuture.failedFuture(e);
+        }
+        return update.exceptionally(e -> {
+            log.error("Failed to update analytics rollups for order {}", order.getOrderID(), e);
+            return null;
+        });
+    }
+
+    // BatchWriteItem; unprocessed items come back as fresh instances, so they are matched by key
+    @Override
+    public List<Order> putBatch(List<Order> orders) {
+        WriteBatch.Builder<Order> writeBatch = WriteBatch.builder(Order.class).mappedTableResource(orderTable);
+        orders.forEach(writeBatch::addPutItem);
+        BatchWriteResult response = enhancedClient.batchWriteItem(r -> r.addWriteBatch(writeBatch.build()));
+
+        Set<String> unprocessedIds = new HashSet<>();
+        response.unprocessedPutItemsForTable(orderTable).forEach(o -> unprocessedIds.add(o.getOrderID()));
+        List<Order> unprocessed = new ArrayList<>(unprocessedIds.size());
+        for (Order order : orders) {
+            if (unprocessedIds.contains(order.getOrderID())) {
+                unprocessed.add(order);
+            }
+        }
+        return unprocessed;
+    }
+
+    // Strongly consistent BatchGetItem, 100 keys per request; unprocessed keys are retried with backoff
+    @Override
+    public Map<String, Order> getStoredOrders(Collection<String> orderIds) {
+        List<String> ids = orderIds.stream().distinct().toList();
+        Map<String, Order> found = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += BATCH_GET_SIZE) {
+            List<Map<String, AttributeValue>> keys = ids.subList(from, Math.min(from + BATCH_GET_SIZE, ids.size())).stream()
+                    .map(id -> Map.of("orderID", AttributeValue.fromS(id)))
+                    .toList();
+            Map<String, KeysAndAttributes> pending = Map.of(TABLE_NAME,
+                    KeysAndAttributes.builder().keys(keys).consistentRead(true).build());
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                if (attempt > 1) {
+                    if (attempt > BATCH_GET_MAX_ATTEMPTS) {
+                        throw new IllegalStateException(pending.get(TABLE_NAME).keys().size()
+                                + " order keys still unprocessed after " + BATCH_GET_MAX_ATTEMPTS + " attempts");
+                    }
+                    try {
+                        Thread.sleep(batchGetBackoff(attempt - 1));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while reading orders", e);
+                    }
+                }
+                BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                response.responses().getOrDefault(TABLE_NAME, List.of()).forEach(item -> {
+                    Order order = orderTable.tableSchema().mapToItem(item);
+                    found.put(order.getOrderID(), order);
+                });
+                pending = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Order getOrder(String orderId) {
+        return orderCache.get(orderId, id -> {
+            Order order = orderTable.getItem(r -> r.key(k -> k.partitionValue(id)));
+            log.debug("Loaded order {} from DynamoDB (found: {})", id, order != null);
+            return order;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Order> getOrderAsync(String orderId) {
+        return orderCache.getAsync(orderId, id -> asyncOrderTable.getItem(r -> r.key(k -> k.partitionValue(id)))
+                .whenComplete((order, e) -> log.debug("Loaded order {} from DynamoDB (found: {})", id, order != null)));
+    }
+
+    // Cache hits first; the misses are read with one BatchGetItem per 100 keys
+    @Override
+    public CompletableFuture<Map<String, Order>> getOrdersAsync(Collection<String> orderIds) {
+        return orderCache.getAllAsync(orderIds, missing -> {
+            List<String> ids = List.copyOf(missing);
+            List<CompletableFuture<Map<String, Optional<Order>>>> batches = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += BATCH_GET_SIZE) {
+                batches.add(batchGetAsync(ids.subList(from, Math.min(from + BATCH_GET_SIZE, ids.size()))));
+            }
+            return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).thenApply(done -> {
+                Map<String, Optional<Order>> found = new HashMap<>();
+                batches.forEach(batch -> found.putAll(batch.join()));
+                return found;
+            });
+        });
+    }
+
+    // Every ID starts out as unknown; those still unread when a request fails or the
+    // retries of unprocessed keys run out are dropped, so they are neither returned nor
+    // cached as missing
+    private CompletableFuture<Map<String, Optional<Order>>> batchGetAsync(List<String> ids) {
+        Map<String, Optional<Order>> found = new HashMap<>();
+        ids.forEach(id -> found.put(id, Optional.empty()));
+        List<Map<String, AttributeValue>> keys = ids.stream()
+                .map(id -> Map.of("orderID", AttributeValue.fromS(id)))
+                .toList();
+        return batchGetAsync(keys, 1, found).thenApply(done -> found);
+    }
+
+    private CompletableFuture<Void> batchGetAsync(List<Map<String, AttributeValue>> keys, int attempt,
+                                                  Map<String, Optional<Order>> found) {
+        return dynamoDbAsyncClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Map.of(TABLE_NAME, KeysAndAttributes.builder().keys(keys).build()))
+                        .build())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        log.warn("Could not read {} orders; leaving them out", keys.size(), e);
+                        dropUnread(keys, found);
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    response.responses().getOrDefault(TABLE_NAME, List.of()).forEach(item -> {
+                        Order order = asyncOrderTable.tableSchema().mapToItem(item);
+                        found.put(order.getOrderID(), Optional.of(order));
+                    });
+                    KeysAndAttributes unprocessed = response.hasUnprocessedKeys() ? response.unprocessedKeys().get(TABLE_NAME) : null;
+                    if (unprocessed == null || unprocessed.keys().isEmpty()) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    if (attempt >= BATCH_GET_MAX_ATTEMPTS) {
+                        log.warn("{} order keys still unprocessed after {} attempts; leaving them out",
+                                unprocessed.keys().size(), attempt);
+                        dropUnread(unprocessed.keys(), found);
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    Executor backoff = CompletableFuture.delayedExecutor(batchGetBackoff(attempt), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, backoff)
+                            .thenCompose(ignored -> batchGetAsync(unprocessed.keys(), attempt + 1, found));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    // Exponential with jitter; attempt is the number of requests made so far
+    private static long batchGetBackoff(int attempt) {
+        long delay = BATCH_GET_BACKOFF_MILLIS << Math.min(attempt - 1, 10);
+        return delay + ThreadLocalRandom.current().nextLong(delay + 1);
+    }
+
+    private static void dropUnread(List<Map<String, AttributeValue>> keys, Map<String, Optional<Order>> found) {
+        keys.forEach(key -> found.remove(key.get("orderID").s()));
+    }
+
+    @Override
+    public List<Order> listOrders() {
+        return parallelScanner.scanAll(orderTable, scanSegments);
+    }
+
+    // One scan page; the cursor is the encoded LastEvaluatedKey
+    @Override
+    public OrderPageDTO findPage(int limit, String cursor) {
+        Page<Order> page = orderTable.scan(ScanEnhancedRequest.builder()
+                        .limit(limit)
+                        .exclusiveStartKey(PageCursorCodec.decode(cursor))
+                        .build())
+                .iterator()
+                .next();
+        return new OrderPageDTO(page.items(), PageCursorCodec.encode(page.lastEvaluatedKey()));
+    }
+
+    // Each scan page is handed over as soon as DynamoDB returns it
+    @Override
+    public void forEachPage(Consumer<List<Order>> pageConsumer) {
+        orderTable.scan().forEach(page -> pageConsumer.accept(page.items()));
+    }
+
+    /**
+     * Orders with {@code from <= orderDate < to}, oldest first. Issues one Query per
+     * UTC day against the orderDay index, concurrently, instead of scanning the table.
+     * Orders saved before the index existed only appear once {@link #backfillOrderDays()} has run.
+     */
+    @Override
+    public List<Order> findOrdersBetween(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        // ISO timestamps with and without fractional seconds don't sort consistently as strings,
+        // so query whole seconds around the window and apply the exact bounds afterwards
+        String lower = SORT_KEY_PREFIX.format(from);
+        String upper = SORT_KEY_PREFIX.format(to.plusSeconds(1));
+
+        List<Supplier<List<Order>>> queries = new ArrayList<>();
+        LocalDate last = to.minusNanos(1).atZone(ZoneOffset.UTC).toLocalDate();
+        for (LocalDate day = from.atZone(ZoneOffset.UTC).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            String partition = day.toString();
+            QueryConditional condition = QueryConditional.sortBetween(
+                    Key.builder().partitionValue(partition).sortValue(lower).build(),
+                    Key.builder().partitionValue(partition).sortValue(upper).build());
+            queries.add(() -> {
+                List<Order> orders = new ArrayList<>();
+                orderDayIndex.query(r -> r.queryConditional(condition))
+                        .forEach(page -> orders.addAll(page.items()));
+                return orders;
+            });
+        }
+
+        List<Order> orders = parallelScanner.fanOut(queries);
+        orders.removeIf(order -> !isWithin(order, from, to));
+        orders.sort(Comparator.comparing(order -> Instant.parse(order.getOrderDate())));
+        return orders;
+    }
+
+    private static boolean isWithin(Order order, Instant from, Instant to) {
+        try {
+            Instant at = Instant.parse(order.getOrderDate());
+            return !at.isBefore(from) && at.isBefore(to);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the orderDay attribute on orders stored before it existed, so they appear
+     * in the orderDay index. Only that attribute is set; the rollups are unaffected.
+     *
+     * @return the number of orders updated
+     */
+    @Override
+    public long backfillOrderDays() {
+        long updated = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .projectionExpression("orderID, orderDate")
+                    .filterExpression("attribute_not_exists(orderDay) AND attribute_exists(orderDate)")
+                    .exclusiveStartKey(startKey)
+                    .build());
+            for (Map<String, AttributeValue> item : page.items()) {
+                String orderDate = item.get("orderDate").s();
+                if (orderDate == null || orderDate.length() < 10) {
+                    continue;
+                }
+                try {
+                    dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                            .tableName(TABLE_NAME)
+                            .key(Map.of("orderID", item.get("orderID")))
+                            .updateExpression("SET orderDay = :day")
+                            .conditionExpression("attribute_exists(orderID)")
+                            .expressionAttributeValues(Map.of(":day", AttributeValue.fromS(orderDate.substring(0, 10))))
+                            .build());
+                    updated++;
+                } catch (ConditionalCheckFailedException e) {
+                    // Deleted since the scan read it
+                }
+            }
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        log.info("Backfilled orderDay on {} orders", updated);
+        return updated;
+    }
+
+    /**
+     * Folds the sales-relevant attributes of every order (orderDate and items) into
+     * per-segment accumulators. The parallel scan projects only those attributes and
+     * decodes them into {@link OrderSalesRecord}s, skipping the bean mapper.
+     */
+    @Override
+    public <A> A aggregateOrderSales(int segments, Supplier<A> supplier,
+                                     BiConsumer<A, OrderSalesRecord> accumulator, BinaryOperator<A> combiner) {
+        ScanRequest request = ScanRequest.builder()
+                .tableName(TABLE_NAME)
+                // "items" is a DynamoDB reserved word
+                .projectionExpression("orderID, orderDate, #items")
+                .expressionAttributeNames(Map.of("#items", "items"))
+                .build();
+        return parallelScanner.scan(dynamoDbClient, request, segments, supplier,
+                (acc, item) -> accumulator.accept(acc, toSalesRecord(item)), combiner);
+    }
+
+    static OrderSalesRecord toSalesRecord(Map<String, AttributeValue> item) {
+        AttributeValue orderId = item.get("orderID");
+        AttributeValue orderDate = item.get("orderDate");
+        AttributeValue items = item.get("items");
+        return new OrderSalesRecord(
+                orderId != null ? orderId.s() : null,
+                orderDate != null ? orderDate.s() : null,
+                items != null ? ITEMS_CONVERTER.transformTo(items) : null);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+@Profile("!local")
+public class DynamoDbProductRepository implements ProductRepository {
+
+    private static final String TABLE_NAME = "Products";
+    // BatchGetItem accepts at most 100 keys per request
+    private static final int BATCH_GET_SIZE = 100;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<Product> productTable;
+    private final DynamoDbAsyncTable<Product> asyncProductTable;
+    private final ParallelScanner parallelScanner;
+    private final int scanSegments;
+    private final int batchGetMaxAttempts;
+    private final long batchGetBackoffMillis;
+
+    public DynamoDbProductRepository(DynamoDbClient dynamoDbClient,
+                                     DynamoDbAsyncClient dynamoDbAsyncClient,
+                                     ParallelScanner parallelScanner,
+                                     @Value("${dynamodb.scan.segments.products:2}") int scanSegments,
+                                     @Value("${products.batch-get.max-attempts:5}") int batchGetMaxAttempts,
+                                     @Value("${products.batch-get.backoff-ms:50}") long batchGetBackoffMillis) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+
+        this.productTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(Product.class));
+        this.asyncProductTable = DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build()
+                .table(TABLE_NAME, TableSchema.fromBean(Product.class));
+        this.parallelScanner = parallelScanner;
+        this.scanSegments = scanSegments;
+        this.batchGetMaxAttempts = batchGetMaxAttempts;
+        this.batchGetBackoffMillis = batchGetBackoffMillis;
+    }
+
+    @Override
+    public void save(Product product) {
+        productTable.putItem(product);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Product product) {
+        return asyncProductTable.putItem(product);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return parallelScanner.scanAll(productTable, scanSegments);
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(productTable.getItem(r -> r.key(k -> k.partitionValue(id))));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> findByIdAsync(String id) {
+        return asyncProductTable.getItem(r -> r.key(k -> k.partitionValue(id))).thenApply(Optional::ofNullable);
+    }
+
+    // BatchGetItem with 100 keys per request; unprocessed keys are retried with backoff
+    @Override
+    public Map<String, Product> findByIds(Collection<String> ids) {
+        List<String> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, Product> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += BATCH_GET_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + BATCH_GET_SIZE, distinct.size()));
+            List<Map<String, AttributeValue>> keys = chunk.stream()
+                    .map(id -> Map.of("productId", AttributeValue.fromS(id)))
+                    .toList();
+            batchGet(keys, found);
+        }
+        return found;
+    }
+
+    private void batchGet(List<Map<String, AttributeValue>> keys, Map<String, Product> found) {
+        Map<String, KeysAndAttributes> pending = Map.of(TABLE_NAME, KeysAndAttributes.builder().keys(keys).build());
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                if (attempt > batchGetMaxAttempts) {
+                    int left = pending.get(TABLE_NAME).keys().size();
+                    throw new IllegalStateException(left + " product keys still unprocessed after "
+                            + batchGetMaxAttempts + " attempts");
+                }
+                sleepBeforeRetry(attempt);
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            response.responses().getOrDefault(TABLE_NAME, List.of()).forEach(item -> {
+                Product product = productTable.tableSchema().mapToItem(item);
+                found.put(product.getProductId(), product);
+            });
+            pending = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        long delay = batchGetBackoffMillis * (1L << Math.min(attempt - 2, 10));
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying product lookup", e);
+        }
+    }
+}
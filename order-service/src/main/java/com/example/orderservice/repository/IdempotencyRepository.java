@@ -0,0 +1,38 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.IdempotencyRecord;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Idempotency-Key records shared by every instance. {@link DynamoDbIdempotencyRepository}
+ * is the production implementation; {@link InMemoryIdempotencyRepository} backs the
+ * {@code local} profile.
+ *
+ * An attempt first claims the key. The claim holds until {@code leaseUntil}; after that
+ * another attempt may take the key over, so an instance that dies mid-request does not
+ * block retries until the record expires. Each claim carries a claimId, and only the
+ * current holder can complete or release it.
+ */
+public interface IdempotencyRepository {
+
+    /**
+     * Claims the key unless it has been completed or is held by an attempt whose lease
+     * has not run out. The claim records {@code requestHash}, which stays with the key.
+     *
+     * @return null if this attempt now holds the key, otherwise the record in the way
+     */
+    CompletableFuture<IdempotencyRecord> claim(String key, String claimId, String requestHash,
+                                               Instant leaseUntil, Instant expiresAt);
+
+    /**
+     * Stores the response for replay until {@code expiresAt}. Fails if the claim was lost.
+     */
+    CompletableFuture<Void> complete(String key, String claimId, IdempotencyRecord record, Instant expiresAt);
+
+    /**
+     * Gives up the claim so a retry can start over; does nothing if it is no longer held.
+     */
+    CompletableFuture<Void> release(String key, String claimId);
+}
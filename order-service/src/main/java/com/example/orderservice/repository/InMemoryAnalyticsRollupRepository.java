@@ -0,0 +1,120 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.AnalyticsRollup;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Rollup storage for the {@code local} profile. Not persisted: the
+ * {@link InMemoryOrderRepository} rebuilds the rollups after replaying its orders.
+ */
+@Repository
+@Profile("local")
+public class InMemoryAnalyticsRollupRepository implements AnalyticsRollupRepository {
+
+    // rollupType -> rollupId -> rollup; ids sorted like the DynamoDB sort key
+    private final Map<String, ConcurrentSkipListMap<String, AnalyticsRollup>> rollups = new ConcurrentHashMap<>();
+
+    // compute() runs the update atomically per key, like UpdateItem ADD
+    @Override
+    public boolean increment(String rollupType, String rollupId, Map<String, Number> deltas) {
+        boolean[] created = new boolean[1];
+        byType(rollupType).compute(rollupId, (id, existing) -> {
+            AnalyticsRollup rollup;
+            if (existing == null) {
+                created[0] = true;
+                rollup = new AnalyticsRollup();
+                rollup.setRollupType(rollupType);
+                rollup.setRollupId(rollupId);
+            } else {
+                rollup = copy(existing);
+            }
+            deltas.forEach((name, delta) -> add(rollup, name, delta));
+            return rollup;
+        });
+        return created[0];
+    }
+
+    // Nothing here waits on I/O, so this runs inline
+    @Override
+    public CompletableFuture<Boolean> incrementAsync(String rollupType, String rollupId, Map<String, Number> deltas) {
+        try {
+            return CompletableFuture.completedFuture(increment(rollupType, rollupId, deltas));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public Optional<AnalyticsRollup> get(String rollupType, String rollupId) {
+        return Optional.ofNullable(byType(rollupType).get(rollupId)).map(InMemoryAnalyticsRollupRepository::copy);
+    }
+
+    @Override
+    public List<AnalyticsRollup> findByType(String rollupType) {
+        return copyAll(byType(rollupType).values());
+    }
+
+    @Override
+    public List<AnalyticsRollup> findRange(String rollupType, String fromId, String toId) {
+        if (fromId.compareTo(toId) > 0) {
+            return List.of();
+        }
+        return copyAll(byType(rollupType).subMap(fromId, true, toId, true).values());
+    }
+
+    @Override
+    public void put(AnalyticsRollup rollup) {
+        byType(rollup.getRollupType()).put(rollup.getRollupId(), copy(rollup));
+    }
+
+    @Override
+    public void delete(String rollupType, String rollupId) {
+        byType(rollupType).remove(rollupId);
+    }
+
+    private ConcurrentSkipListMap<String, AnalyticsRollup> byType(String rollupType) {
+        return rollups.computeIfAbsent(rollupType, type -> new ConcurrentSkipListMap<>());
+    }
+
+    private static void add(AnalyticsRollup rollup, String attribute, Number delta) {
+        switch (attribute) {
+            case "orderCount" -> rollup.setOrderCount(orZero(rollup.getOrderCount()) + delta.longValue());
+            case "quantity" -> rollup.setQuantity(orZero(rollup.getQuantity()) + delta.longValue());
+            case "revenue" -> rollup.setRevenue((rollup.getRevenue() != null ? rollup.getRevenue() : 0) + delta.doubleValue());
+            case "distinctProducts" -> rollup.setDistinctProducts(orZero(rollup.getDistinctProducts()) + delta.longValue());
+            default -> throw new IllegalArgumentException("Unknown rollup attribute " + attribute);
+        }
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static List<AnalyticsRollup> copyAll(Collection<AnalyticsRollup> source) {
+        List<AnalyticsRollup> copies = new ArrayList<>(source.size());
+        source.forEach(rollup -> copies.add(copy(rollup)));
+        return copies;
+    }
+
+    private static AnalyticsRollup copy(AnalyticsRollup source) {
+        AnalyticsRollup rollup = new AnalyticsRollup();
+        rollup.setRollupType(source.getRollupType());
+        rollup.setRollupId(source.getRollupId());
+        rollup.setOrderCount(source.getOrderCount());
+        rollup.setQuantity(source.getQuantity());
+        rollup.setRevenue(source.getRevenue());
+        rollup.setDistinctProducts(source.getDistinctProducts());
+        return rollup;
+    }
+}
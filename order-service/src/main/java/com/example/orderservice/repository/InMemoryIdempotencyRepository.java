@@ -0,0 +1,89 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Idempotency records for the {@code local} profile, with the same claim rules as
+ * {@link DynamoDbIdempotencyRepository}. Not persisted; bounded like the service's own
+ * cache, and each record is dropped once it expires.
+ */
+@Repository
+@Profile("local")
+public class InMemoryIdempotencyRepository implements IdempotencyRepository {
+
+    private final Cache<String, Entry> entries;
+
+    public InMemoryIdempotencyRepository(@Value("${orders.idempotency.max-size:100000}") long maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // compute() makes each operation atomic per key, like a conditional write
+    @Override
+    public CompletableFuture<IdempotencyRecord> claim(String key, String claimId, String requestHash,
+                                                      Instant leaseUntil, Instant expiresAt) {
+        Instant now = Instant.now();
+        IdempotencyRecord[] inTheWay = new IdempotencyRecord[1];
+        entries.asMap().compute(key, (k, current) -> {
+            if (current == null || current.expiresAt().isBefore(now)
+                    || (!current.record().completed() && current.leaseUntil().isBefore(now))) {
+                return new Entry(claimId, IdempotencyRecord.inProgress(requestHash), leaseUntil, expiresAt);
+            }
+            inTheWay[0] = current.record();
+            return current;
+        });
+        return CompletableFuture.completedFuture(inTheWay[0]);
+    }
+
+    @Override
+    public CompletableFuture<Void> complete(String key, String claimId, IdempotencyRecord record, Instant expiresAt) {
+        boolean[] held = new boolean[1];
+        entries.asMap().computeIfPresent(key, (k, current) -> {
+            if (!current.claimId().equals(claimId)) {
+                return current;
+            }
+            held[0] = true;
+            return new Entry(claimId, record, current.leaseUntil(), expiresAt);
+        });
+        return held[0] ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.failedFuture(new IllegalStateException("Claim on idempotency key was lost"));
+    }
+
+    @Override
+    public CompletableFuture<Void> release(String key, String claimId) {
+        entries.asMap().computeIfPresent(key, (k, current) ->
+                current.claimId().equals(claimId) && !current.record().completed() ? null : current);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private record Entry(String claimId, IdempotencyRecord record, Instant leaseUntil, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.OrderPageDTO;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSalesRecord;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import com.example.orderservice.util.JsonCodecs;
+import com.example.orderservice.util.PageCursorCodec;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Order storage for the {@code local} profile: sorted in-memory maps, optionally
+ * backed by an append-only JSON-lines file under {@code storage.local.data-dir}.
+ *
+ * Orders are copied on the way in and out, so callers can modify what they read
+ * and the rollup deltas in {@link #saveOrder} still see the stored previous version.
+ */
+@Repository
+@Profile("local")
+public class InMemoryOrderRepository implements OrderRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryOrderRepository.class);
+    private static final int PAGE_SIZE = 1000;
+
+    // orderID -> order; sorted so pages and cursors are stable
+    private final ConcurrentSkipListMap<String, Order> orders = new ConcurrentSkipListMap<>();
+    // (orderDate, orderID) -> order, for time-window reads
+    private final ConcurrentSkipListMap<TimeKey, Order> ordersByDate = new ConcurrentSkipListMap<>();
+    // Keeps the two maps and the log consistent; reads don't take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final OrderAnalyticsAggregator analyticsAggregator;
+    private final AppendOnlyLog<Order> journal;
+
+    public InMemoryOrderRepository(OrderAnalyticsAggregator analyticsAggregator,
+                                   @Value("${storage.local.data-dir:}") String dataDir) {
+        this.analyticsAggregator = analyticsAggregator;
+        if (dataDir == null || dataDir.isBlank()) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new AppendOnlyLog<>(Path.of(dataDir, "orders.jsonl"),
+                JsonCodecs.ORDER_READER, JsonCodecs.ORDER_WRITER);
+        for (Order order : journal.replay()) {
+            store(order);
+        }
+        journal.compact(orders.values());
+        // Rollups are not persisted; derive them from the replayed orders
+        analyticsAggregator.rebuild(orders.values());
+        log.info("Loaded {} orders from {}", orders.size(), dataDir);
+    }
+
+    @Override
+    public void saveOrder(Order order) {
+        Order stored = Order.copyOf(order);
+        Order previous;
+        writeLock.lock();
+        try {
+            previous = store(stored);
+            if (journal != null) {
+                journal.append(stored);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            analyticsAggregator.onOrderSaved(previous, order);
+        } catch (Exception e) {
+            log.error("Failed to update analytics rollups for order {}", order.getOrderID(), e);
+        }
+    }
+
+    // Nothing here waits on I/O, so the async variants run inline
+    @Override
+    public CompletableFuture<Void> saveOrderAsync(Order order) {
+        try {
+            saveOrder(order);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Nothing is ever left unprocessed locally
+    @Override
+    public List<Order> putBatch(List<Order> batch) {
+        writeLock.lock();
+        try {
+            for (Order order : batch) {
+                Order stored = Order.copyOf(order);
+                store(stored);
+                if (journal != null) {
+                    journal.append(stored);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return List.of();
+    }
+
+    @Override
+    public Map<String, Order> getStoredOrders(Collection<String> orderIds) {
+        Map<String, Order> found = new LinkedHashMap<>();
+        for (String orderId : orderIds) {
+            Order order = getOrder(orderId);
+            if (order != null) {
+                found.put(orderId, order);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Order getOrder(String orderId) {
+        Order order = orders.get(orderId);
+        return order != null ? Order.copyOf(order) : null;
+    }
+
+    @Override
+    public CompletableFuture<Order> getOrderAsync(String orderId) {
+        return CompletableFuture.completedFuture(getOrder(orderId));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Order>> getOrdersAsync(Collection<String> orderIds) {
+        return CompletableFuture.completedFuture(getStoredOrders(orderIds));
+    }
+
+    @Override
+    public List<Order> listOrders() {
+        return copyAll(orders.values());
+    }
+
+    // The cursor has the same encoding as a DynamoDB LastEvaluatedKey on orderID
+    @Override
+    public OrderPageDTO findPage(int limit, String cursor) {
+        Map<String, AttributeValue> startKey = PageCursorCodec.decode(cursor);
+        NavigableMap<String, Order> remaining = startKey == null ? orders
+                : orders.tailMap(startKey.get("orderID").s(), false);
+
+        List<Order> page = new ArrayList<>(Math.min(limit, PAGE_SIZE));
+        String lastId = null;
+        for (Order order : remaining.values()) {
+            if (page.size() == limit) {
+                return new OrderPageDTO(page, PageCursorCodec.encode(Map.of("orderID", AttributeValue.fromS(lastId))));
+            }
+            page.add(Order.copyOf(order));
+            lastId = order.getOrderID();
+        }
+        return new OrderPageDTO(page, null);
+    }
+
+    @Override
+    public void forEachPage(Consumer<List<Order>> pageConsumer) {
+        List<Order> page = new ArrayList<>(PAGE_SIZE);
+        for (Order order : orders.values()) {
+            page.add(Order.copyOf(order));
+            if (page.size() == PAGE_SIZE) {
+                pageConsumer.accept(page);
+                page = new ArrayList<>(PAGE_SIZE);
+            }
+        }
+        if (!page.isEmpty()) {
+            pageConsumer.accept(page);
+        }
+    }
+
+    @Override
+    public List<Order> findOrdersBetween(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        // "" sorts before every orderID, so this is from inclusive, to exclusive
+        return copyAll(ordersByDate.subMap(new TimeKey(from, ""), new TimeKey(to, "")).values());
+    }
+
+    // orderDay is derived from orderDate, so there is never anything to backfill
+    @Override
+    public long backfillOrderDays() {
+        return 0;
+    }
+
+    // Already in memory, so a single sequential pass; segments only matter for DynamoDB
+    @Override
+    public <A> A aggregateOrderSales(int segments, Supplier<A> supplier,
+                                     BiConsumer<A, OrderSalesRecord> accumulator, BinaryOperator<A> combiner) {
+        A result = supplier.get();
+        for (Order order : orders.values()) {
+            accumulator.accept(result, new OrderSalesRecord(order.getOrderID(), order.getOrderDate(), order.getItems()));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // Replaces the order in both maps; returns the previous version
+    private Order store(Order order) {
+        Order previous = orders.put(order.getOrderID(), order);
+        if (previous != null) {
+            TimeKey previousKey = TimeKey.of(previous);
+            if (previousKey != null) {
+                ordersByDate.remove(previousKey);
+            }
+        }
+        TimeKey key = TimeKey.of(order);
+        if (key != null) {
+            ordersByDate.put(key, order);
+        }
+        return previous;
+    }
+
+    private static List<Order> copyAll(Iterable<Order> source) {
+        List<Order> copies = new ArrayList<>();
+        for (Order order : source) {
+            copies.add(Order.copyOf(order));
+        }
+        return copies;
+    }
+
+    private record TimeKey(Instant at, String orderId) implements Comparable<TimeKey> {
+
+        // null when the order has no parseable orderDate; such orders are not in any time window
+        static TimeKey of(Order order) {
+            if (order.getOrderDate() == null) {
+                return null;
+            }
+            try {
+                return new TimeKey(Instant.parse(order.getOrderDate()), order.getOrderID());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = at.compareTo(other.at);
+            return byTime != 0 ? byTime : orderId.compareTo(other.orderId);
+        }
+    }
+}
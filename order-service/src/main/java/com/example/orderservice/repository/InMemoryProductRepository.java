@@ -0,0 +1,123 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Product;
+import com.example.orderservice.util.JsonCodecs;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Product storage for the {@code local} profile, persisted the same way as
+ * {@link InMemoryOrderRepository} when {@code storage.local.data-dir} is set.
+ */
+@Repository
+@Profile("local")
+public class InMemoryProductRepository implements ProductRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryProductRepository.class);
+
+    private final ConcurrentSkipListMap<String, Product> products = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AppendOnlyLog<Product> journal;
+
+    public InMemoryProductRepository(@Value("${storage.local.data-dir:}") String dataDir) {
+        if (dataDir == null || dataDir.isBlank()) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new AppendOnlyLog<>(Path.of(dataDir, "products.jsonl"),
+                JsonCodecs.MAPPER.readerFor(Product.class), JsonCodecs.MAPPER.writerFor(Product.class));
+        for (Product product : journal.replay()) {
+            products.put(product.getProductId(), product);
+        }
+        journal.compact(products.values());
+        log.info("Loaded {} products from {}", products.size(), dataDir);
+    }
+
+    @Override
+    public void save(Product product) {
+        Product stored = copy(product);
+        writeLock.lock();
+        try {
+            products.put(stored.getProductId(), stored);
+            if (journal != null) {
+                journal.append(stored);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Nothing here waits on I/O, so the async variants run inline
+    @Override
+    public CompletableFuture<Void> saveAsync(Product product) {
+        try {
+            save(product);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        List<Product> all = new ArrayList<>(products.size());
+        products.values().forEach(product -> all.add(copy(product)));
+        return all;
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(products.get(id)).map(InMemoryProductRepository::copy);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> findByIdAsync(String id) {
+        return CompletableFuture.completedFuture(findById(id));
+    }
+
+    @Override
+    public Map<String, Product> findByIds(Collection<String> ids) {
+        Map<String, Product> found = new HashMap<>();
+        for (String id : ids) {
+            Product product = id != null ? products.get(id) : null;
+            if (product != null) {
+                found.put(id, copy(product));
+            }
+        }
+        return found;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private static Product copy(Product source) {
+        Product product = new Product();
+        product.setProductId(source.getProductId());
+        product.setName(source.getName());
+        product.setPrice(source.getPrice());
+        product.setCategory(source.getCategory());
+        product.setStock(source.getStock());
+        product.setCreatedAt(source.getCreatedAt());
+        return product;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.BulkIngestResultDTO;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import com.example.orderservice.util.WorkerThreads;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk order ingestion through {@link OrderRepository#putBatch} (BatchWriteItem on DynamoDB).
+ *
+ * Orders are grouped into batches of 25 (the DynamoDB maximum) and up to
+ * {@code orders.bulk.max-in-flight} batches are written concurrently while the
+ * caller keeps reading input. Unprocessed items and throttled or failed requests are
+ * retried with exponential backoff and jitter; a request DynamoDB rejects as invalid
+ * is not, since it would fail the same way every time.
+ *
+ * Each batch reads the stored versions of its orders before writing, so re-importing
+ * orders applies only their difference to the analytics rollups, as {@code saveOrder}
+ * does. Two in-flight batches carrying the same new order can still both count it.
+ */
+@Component
+public class OrderBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchWriter.class);
+    private static final int BATCH_SIZE = 25;
+
+    private final OrderRepository orderRepository;
+    private final OrderAnalyticsAggregator analyticsAggregator;
+    private final OrderCache orderCache;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OrderBatchWriter(OrderRepository orderRepository,
+                            OrderAnalyticsAggregator analyticsAggregator,
+                            OrderCache orderCache,
+                            @Value("${orders.bulk.max-in-flight:4}") int maxInFlight,
+                            @Value("${orders.bulk.max-attempts:8}") int maxAttempts,
+                            @Value("${orders.bulk.backoff-ms:50}") long backoffMillis,
+                            @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads) {
+        this.orderRepository = orderRepository;
+        this.analyticsAggregator = analyticsAggregator;
+        this.orderCache = orderCache;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+
+        // The in-flight semaphore bounds concurrency either way
+        this.executor = WorkerThreads.executor("order-batch-writer-", maxInFlight, virtualThreads);
+    }
+
+    /**
+     * Writes every order from the iterator, replacing stored orders with the same ID. An
+     * order repeated within a batch is written once, and the last copy wins.
+     *
+     * @param orders consumed lazily, so a streamed request body is never held in memory
+     */
+    public BulkIngestResultDTO writeAll(Iterator<Order> orders) {
+        BulkIngestResultDTO result = new BulkIngestResultDTO();
+        List<BulkIngestResultDTO.BatchStats> stats = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong written = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // Each batch's future with its size, so a batch that fails outright is counted
+        Map<Future<?>, Integer> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+
+        try {
+            int batchNumber = 0;
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                List<Order> batch = new ArrayList<>(BATCH_SIZE);
+                try {
+                    while (batch.size() < BATCH_SIZE && orders.hasNext()) {
+                        batch.add(orders.next());
+                    }
+                    endOfInput = batch.size() < BATCH_SIZE;
+                } catch (RuntimeException e) {
+                    // Malformed input: the orders read before it are still written, and the
+                    // result reports where it stopped
+                    log.warn("Bulk ingestion stopped early", e);
+                    result.setError(e.getMessage());
+                    endOfInput = true;
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int number = ++batchNumber;
+                inFlight.acquire();
+                futures.put(executor.submit(() -> {
+                    try {
+                        BulkIngestResultDTO.BatchStats batchStats = writeBatch(number, batch);
+                        stats.add(batchStats);
+                        written.addAndGet(batchStats.getItems() - batchStats.getUnprocessed());
+                        failed.addAndGet(batchStats.getUnprocessed());
+                        return null;
+                    } finally {
+                        inFlight.release();
+                    }
+                }), batch.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setError("Interrupted");
+        }
+
+        for (Map.Entry<Future<?>, Integer> batch : futures.entrySet()) {
+            try {
+                batch.getKey().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Batch write failed", e.getCause());
+                failed.addAndGet(batch.getValue());
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        List<BulkIngestResultDTO.BatchStats> ordered = new ArrayList<>(stats);
+        ordered.sort((a, b) -> Integer.compare(a.getBatch(), b.getBatch()));
+        result.setBatches(ordered);
+        result.setOrdersWritten(written.get());
+        result.setOrdersFailed(failed.get());
+        result.setElapsedMillis(elapsedMillis);
+        result.setOrdersPerSecond(elapsedMillis > 0 ? written.get() * 1000.0 / elapsedMillis : 0);
+        log.info("Bulk ingestion wrote {} orders in {} batches ({} failed) in {} ms",
+                written.get(), ordered.size(), failed.get(), elapsedMillis);
+        return result;
+    }
+
+    private BulkIngestResultDTO.BatchStats writeBatch(int number, List<Order> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        // BatchWriteItem rejects the whole request if a key appears twice
+        Map<String, Order> distinct = new LinkedHashMap<>();
+        batch.forEach(order -> distinct.put(order.getOrderID(), order));
+        List<Order> pending = new ArrayList<>(distinct.values());
+        Map<String, Order> previous = null;
+        int attempts = 0;
+
+        while (!pending.isEmpty() && attempts < maxAttempts) {
+            if (attempts > 0) {
+                long delay = backoffMillis * (1L << Math.min(attempts - 1, 10));
+                Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+            }
+            attempts++;
+
+            try {
+                if (previous == null) {
+                    previous = orderRepository.getStoredOrders(distinct.keySet());
+                }
+                pending = orderRepository.putBatch(pending);
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    log.warn("Batch {} was rejected: {}", number, e.getMessage());
+                    break;
+                }
+                log.warn("Batch {} attempt {} failed: {}", number, attempts, e.getMessage());
+            }
+        }
+
+        List<Order> stored = new ArrayList<>(distinct.values());
+        stored.removeAll(pending);
+        stored.forEach(orderCache::put);
+        try {
+            // Nothing was written if the stored versions could not be read
+            if (previous != null) {
+                analyticsAggregator.onOrdersWritten(stored, previous);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update analytics rollups for batch {}", number, e);
+        }
+
+        return new BulkIngestResultDTO.BatchStats(number, distinct.size(), pending.size(), attempts,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Throttling, server errors and network failures can pass on a later attempt; a rejected
+    // request (e.g. a ValidationException for a duplicate key in the batch) cannot
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof SdkServiceException serviceError) {
+            return serviceError.isThrottlingException() || serviceError.statusCode() >= 500;
+        }
+        return e instanceof SdkClientException;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for single-order lookups.
+ *
+ * Misses are cached as {@link Optional#empty()} for a shorter TTL so repeated
+ * lookups of unknown IDs do not all go to DynamoDB. Orders are copied on the way in
+ * and out, so a caller changing the order it looked up or saved does not change what
+ * other readers see.
+ *
+ * Entries are futures so that a miss is loaded outside the cache's internal lock: a
+ * blocking DynamoDB call inside a compute would hold a map bin lock and, on a virtual
+ * thread, pin its carrier for the duration of the request.
+ */
+@Component
+public class OrderCache {
+
+    private final AsyncCache<String, Optional<Order>> cache;
+
+    public OrderCache(@Value("${orders.cache.max-size:10000}") long maxSize,
+                      @Value("${orders.cache.ttl:5m}") Duration ttl,
+                      @Value("${orders.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<Order>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<Order> value, long currentTime) {
+                        return (value.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<Order> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<Order> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached order, loading it with {@code loader} on a miss.
+     * Concurrent misses for the same ID share a single load.
+     */
+    public Order get(String orderId, Function<String, Order> loader) {
+        CompletableFuture<Optional<Order>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Order>> entry = cache.get(orderId, (id, executor) -> load);
+        if (entry == load) {
+            // This caller registered the miss, so it loads; a failed future is dropped by the cache
+            try {
+                load.complete(Optional.ofNullable(loader.apply(orderId)));
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+            }
+        }
+        try {
+            return entry.join().map(Order::copyOf).orElse(null);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Non-blocking {@link #get}: {@code loader} starts the lookup and returns its future.
+     * Concurrent misses for the same ID share it; a failed load is not cached.
+     */
+    public CompletableFuture<Order> getAsync(String orderId, Function<String, CompletableFuture<Order>> loader) {
+        return cache.get(orderId, (id, executor) -> loader.apply(id).thenApply(Optional::ofNullable))
+                .thenApply(order -> order.map(Order::copyOf).orElse(null));
+    }
+
+    /**
+     * Non-blocking lookup of many orders: hits come from the cache and all misses go to
+     * {@code loader} together. IDs the loader maps to empty are cached as unknown; IDs it
+     * leaves out of its result, e.g. because they could not be read, are neither cached
+     * nor returned.
+     */
+    public CompletableFuture<Map<String, Order>> getAllAsync(
+            Collection<String> orderIds, Function<Set<String>, CompletableFuture<Map<String, Optional<Order>>>> loader) {
+        return cache.getAll(orderIds, (missing, executor) -> loader.apply(Set.copyOf(missing)))
+                .thenApply(entries -> {
+                    Map<String, Order> orders = new LinkedHashMap<>();
+                    entries.forEach((orderId, order) -> order.ifPresent(found -> orders.put(orderId, Order.copyOf(found))));
+                    return orders;
+                });
+    }
+
+    public void put(Order order) {
+        cache.synchronous().put(order.getOrderID(), Optional.of(Order.copyOf(order)));
+    }
+
+    public void invalidate(String orderId) {
+        cache.synchronous().invalidate(orderId);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -1,48 +1,99 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderPageDTO;
 import com.example.orderservice.model.Order;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.orderservice.model.OrderSalesRecord;
 
-import org.springframework.stereotype.Repository;
-import software.amazon.awssdk.enhanced.dynamodb.*;
-import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Order storage. {@link DynamoDbOrderRepository} is the production implementation;
+ * {@link InMemoryOrderRepository} backs the {@code local} profile.
+ */
+public interface OrderRepository {
+
+    /**
+     * Stores the order, replacing any previous version, and applies the difference
+     * to the analytics rollups.
+     */
+    void saveOrder(Order order);
+
+    /**
+     * {@link #saveOrder} without blocking the calling thread. The future completes once
+     * the order is stored; a failed rollup update is logged, not propagated.
+     */
+    CompletableFuture<Void> saveOrderAsync(Order order);
+
+    /**
+     * Writes up to 25 orders with distinct IDs in one request. Unlike {@link #saveOrder},
+     * previous versions are not read and the rollups are not touched; callers do that,
+     * with {@link #getStoredOrders}, for the orders that were written.
+     *
+     * @return the orders that were not written and should be retried
+     */
+    List<Order> putBatch(List<Order> orders);
+
+    /**
+     * The stored versions of the given orders, read from the table rather than the cache,
+     * so a bulk write can tell new orders from replaced ones. Unknown IDs are absent; an
+     * order that could not be read fails the call instead of being left out.
+     */
+    Map<String, Order> getStoredOrders(Collection<String> orderIds);
+
+    Order getOrder(String orderId);
+
+    /**
+     * {@link #getOrder} without blocking the calling thread; completes with null if
+     * there is no such order.
+     */
+    CompletableFuture<Order> getOrderAsync(String orderId);
+
+    /**
+     * Looks up many orders at once without blocking. Unknown IDs are absent from the
+     * result, and so are orders that could not be read: one failed lookup does not fail
+     * the others.
+     */
+    CompletableFuture<Map<String, Order>> getOrdersAsync(Collection<String> orderIds);
+
+    List<Order> listOrders();
+
+    /**
+     * Reads a single page of at most {@code limit} orders.
+     *
+     * @param cursor the nextCursor of the previous page, or null to start from the beginning
+     */
+    OrderPageDTO findPage(int limit, String cursor);
+
+    /**
+     * Hands the orders to the consumer page by page, so callers never hold all of them.
+     */
+    void forEachPage(Consumer<List<Order>> pageConsumer);
+
+    /**
+     * Orders with {@code from <= orderDate < to}, oldest first.
+     */
+    List<Order> findOrdersBetween(Instant from, Instant to);
+
+    /**
+     * Adds the orderDay attribute to orders stored before it existed.
+     *
+     * @return the number of orders updated
+     */
+    long backfillOrderDays();
 
-@Repository
-public class OrderRepository {
-
-    private final DynamoDbTable<Order> orderTable;
-
-    public OrderRepository(DynamoDbClient dynamoDbClient) {
-        DynamoDbEnhancedClient enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient)
-                .build();
-        this.orderTable = enhancedClient.table("orders", TableSchema.fromBean(Order.class));
-    }
-
-    public void saveOrder(Order order) {
-
-        orderTable.putItem(order);
-    }
-
-    public Order getOrder(String orderId) {
-        Order order = orderTable.getItem(r -> r.key(k -> k.partitionValue(orderId)));
-        try {
-            System.out.println("Repository returned: " + new ObjectMapper().writeValueAsString(order));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return order;
-    }
-
-    public List<Order> listOrders() {
-        List<Order> orders = new ArrayList<>();
-        orderTable.scan(ScanEnhancedRequest.builder().build())
-                .items()
-                .forEach(orders::add);
-        return orders;
-    }
+    /**
+     * Folds the sales-relevant attributes of every order into per-segment accumulators.
+     *
+     * @param segments how many parts to read concurrently, each into its own accumulator
+     */
+    <A> A aggregateOrderSales(int segments, Supplier<A> supplier,
+                              BiConsumer<A, OrderSalesRecord> accumulator, BinaryOperator<A> combiner);
 }
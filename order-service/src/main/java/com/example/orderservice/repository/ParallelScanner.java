@@ -0,0 +1,154 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.util.WorkerThreads;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Runs DynamoDB parallel scans: the table is split into N segments that are
+ * scanned concurrently, each into its own accumulator, and the partial results
+ * are merged once every segment has finished.
+ */
+@Component
+public class ParallelScanner {
+
+    private final ExecutorService executor;
+
+    // Follows spring.threads.virtual.enabled unless dynamodb.scan.virtual-threads is set
+    public ParallelScanner(@Value("${dynamodb.scan.max-threads:16}") int maxThreads,
+                           @Value("${dynamodb.scan.virtual-threads:" + WorkerThreads.VIRTUAL_THREADS_PROPERTY + "}") boolean virtualThreads) {
+        this.executor = WorkerThreads.executor("dynamodb-scan-", maxThreads, virtualThreads);
+    }
+
+    /**
+     * Scans the table with {@code segments} concurrent workers.
+     *
+     * @param supplier    creates one accumulator per segment
+     * @param accumulator folds an item into a segment's accumulator (never called concurrently for the same accumulator)
+     * @param combiner    merges two segment results
+     */
+    public <T, A> A scan(DynamoDbTable<T> table, int segments,
+                         Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner) {
+        if (segments <= 1) {
+            A result = supplier.get();
+            table.scan().items().forEach(item -> accumulator.accept(result, item));
+            return result;
+        }
+
+        List<CompletableFuture<A>> futures = new ArrayList<>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            ScanEnhancedRequest request = ScanEnhancedRequest.builder()
+                    .segment(segment)
+                    .totalSegments(segments)
+                    .build();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                A partial = supplier.get();
+                table.scan(request).items().forEach(item -> accumulator.accept(partial, item));
+                return partial;
+            }, executor));
+        }
+
+        try {
+            A result = futures.get(0).join();
+            for (int i = 1; i < futures.size(); i++) {
+                result = combiner.apply(result, futures.get(i).join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            throw unwrap(e, futures);
+        }
+    }
+
+    /**
+     * Runs independent reads (e.g. one Query per partition key) concurrently on the
+     * scan pool and concatenates their results in the order the reads were given.
+     */
+    public <T> List<T> fanOut(List<Supplier<List<T>>> reads) {
+        if (reads.size() == 1) {
+            return new ArrayList<>(reads.get(0).get());
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(reads.size());
+        for (Supplier<List<T>> read : reads) {
+            futures.add(CompletableFuture.supplyAsync(read, executor));
+        }
+
+        try {
+            List<T> result = new ArrayList<>();
+            for (CompletableFuture<List<T>> future : futures) {
+                result.addAll(future.join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            throw unwrap(e, futures);
+        }
+    }
+
+    /**
+     * Low-level variant of {@link #scan} for projected scans: every segment runs
+     * {@code request} (typically with a projection expression) and receives raw items,
+     * so callers can decode just the attributes they asked for.
+     */
+    public <A> A scan(DynamoDbClient client, ScanRequest request, int segments, Supplier<A> supplier,
+                      BiConsumer<A, Map<String, AttributeValue>> accumulator, BinaryOperator<A> combiner) {
+        if (segments <= 1) {
+            A result = supplier.get();
+            client.scanPaginator(request).items().forEach(item -> accumulator.accept(result, item));
+            return result;
+        }
+
+        List<CompletableFuture<A>> futures = new ArrayList<>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            ScanRequest segmentRequest = request.toBuilder()
+                    .segment(segment)
+                    .totalSegments(segments)
+                    .build();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                A partial = supplier.get();
+                client.scanPaginator(segmentRequest).items().forEach(item -> accumulator.accept(partial, item));
+                return partial;
+            }, executor));
+        }
+
+        try {
+            A result = futures.get(0).join();
+            for (int i = 1; i < futures.size(); i++) {
+                result = combiner.apply(result, futures.get(i).join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            throw unwrap(e, futures);
+        }
+    }
+
+    public <T> List<T> scanAll(DynamoDbTable<T> table, int segments) {
+        return scan(table, segments, ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    private static RuntimeException unwrap(CompletionException e, List<? extends CompletableFuture<?>> futures) {
+        futures.forEach(f -> f.cancel(true));
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
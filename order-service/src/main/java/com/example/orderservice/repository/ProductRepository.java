@@ -0,0 +1,32 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Product storage. {@link DynamoDbProductRepository} is the production implementation;
+ * {@link InMemoryProductRepository} backs the {@code local} profile.
+ */
+public interface ProductRepository {
+
+    void save(Product product);
+
+    CompletableFuture<Void> saveAsync(Product product);
+
+    List<Product> findAll();
+
+    Optional<Product> findById(String id);
+
+    CompletableFuture<Optional<Product>> findByIdAsync(String id);
+
+    /**
+     * Looks up many products at once. Duplicate and null IDs are ignored, and IDs
+     * that do not exist are simply absent from the result.
+     */
+    Map<String, Product> findByIds(Collection<String> ids);
+}
@@ -1,11 +1,17 @@
 package com.example.orderservice.security;
 
+import com.example.orderservice.util.LogSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,61 +22,77 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Per-request debug lines are sampled; never log the header or token itself
+    private LogSampler debugSampler = new LogSampler(log, 100);
+
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+
+    public JwtFilter(MeterRegistry meterRegistry) {
+        this.validTokenTimer = validationTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = validationTimer(meterRegistry, "invalid");
+    }
+
+    @Value("${logging.sampling.jwt-filter:100}")
+    void setDebugSampleRate(long rate) {
+        this.debugSampler = new LogSampler(log, rate);
+    }
+
+    private static Timer validationTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("jwt.validation")
+                .description("Bearer token verification, including verified-token cache hits")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String requestURI = request.getRequestURI();
         String authHeader = request.getHeader("Authorization");
 
-        System.out.println("🔍 Processing request: " + requestURI);
-        System.out.println("🔍 Auth Header: " + authHeader);
-
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
-            System.out.println("🔍 Extracted JWT: " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
-            
+
             try {
-                String username = jwtUtil.extractUsername(jwt);
-                System.out.println("🔍 Extracted Username: " + username);
-
-                if (username != null) {
-                    boolean isValid = jwtUtil.validateToken(jwt, username);
-                    System.out.println("🔍 Token Valid: " + isValid);
-                    
-                    boolean hasAuth = SecurityContextHolder.getContext().getAuthentication() != null;
-                    System.out.println("🔍 Already Authenticated: " + hasAuth);
-                    
-                    if (isValid && !hasAuth) {
-                        // ✅ Give ROLE_USER
-                        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
-
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username,
-                                null, authorities);
-
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                        System.out.println("✅ Authentication Set Successfully for: " + username);
-                    } else {
-                        System.out.println("❌ Authentication failed - Valid: " + isValid + ", HasAuth: " + hasAuth);
+                // One verification (or cache hit) covers signature, expiry and subject
+                long start = System.nanoTime();
+                String username = jwtUtil.validateAndGetUsername(jwt);
+                boolean isValid = username != null;
+                (isValid ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                boolean hasAuth = SecurityContextHolder.getContext().getAuthentication() != null;
+
+                if (isValid && !hasAuth) {
+                    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username,
+                            null, authorities);
+
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                    if (debugSampler.shouldLogDebug()) {
+                        log.debug("Authenticated {} for {}", username, request.getRequestURI());
                     }
-                } else {
-                    System.out.println("❌ Username is null");
+                } else if (debugSampler.shouldLogDebug()) {
+                    log.debug("Authentication not set for {} (valid: {}, already authenticated: {})",
+                            request.getRequestURI(), isValid, hasAuth);
                 }
             } catch (Exception e) {
-                System.out.println("❌ JWT Processing Error: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-                e.printStackTrace();
+                log.warn("JWT processing error for {}: {}", request.getRequestURI(), e.toString());
             }
-        } else {
-            System.out.println("❌ No valid Authorization header found");
+        } else if (debugSampler.shouldLogDebug()) {
+            log.debug("No bearer token on {}", request.getRequestURI());
         }
 
         filterChain.doFilter(request, response);
@@ -78,10 +100,6 @@ public class JwtFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
-        boolean shouldSkip = request.getRequestURI().startsWith("/api/auth/");
-        if (shouldSkip) {
-            System.out.println("⏭️ Skipping JWT filter for: " + request.getRequestURI());
-        }
-        return shouldSkip;
+        return request.getRequestURI().startsWith("/api/auth/");
     }
-}
\ No newline at end of file
+}
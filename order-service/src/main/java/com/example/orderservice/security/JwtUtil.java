@@ -1,47 +1,128 @@
 package com.example.orderservice.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HexFormat;
 
 @Component
 public class JwtUtil {
     private static final String SECRET = "gokul-secret-key-for-jwt-123456789"; // should be at least 32 bytes for HMAC-SHA256
     private static final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    private static final Duration DEFAULT_VALIDITY = Duration.ofHours(10);
+
+    // Thread-safe and immutable, so one parser serves every request
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    // SHA-256 of the token -> verified subject; entries never outlive the token itself
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${security.jwt.cache.max-size:10000}") long cacheMaxSize,
+                   @Value("${security.jwt.cache.ttl:5m}") Duration cacheTtl) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String hash, VerifiedToken token, long currentTime) {
+                        long untilExpiry = token.expiresAtMillis() - System.currentTimeMillis();
+                        return Math.max(0, Math.min(cacheTtl.toNanos(), Duration.ofMillis(untilExpiry).toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(hash, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
 
     public String generateToken(String username) {
+        return generateToken(username, DEFAULT_VALIDITY);
+    }
+
+    String generateToken(String username, Duration validity) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
+                .setExpiration(new Date(System.currentTimeMillis() + validity.toMillis()))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token once and returns its subject, or null if the token is invalid
+     * or expired. Successful verifications are cached by token hash until the token
+     * expires (or {@code security.jwt.cache.ttl}), so repeat requests skip the HMAC check.
+     */
+    public String validateAndGetUsername(String token) {
+        String hash = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null) {
+            return cached.expiresAtMillis() > System.currentTimeMillis() ? cached.username() : null;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Covers bad signatures, malformed tokens and expired tokens
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        verifiedTokens.put(hash, new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+        return claims.getSubject();
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean validateToken(String token, String user) {
-        String username = extractUsername(token);
-        return (username.equals(user) && !isTokenExpired(token));
+        String username = validateAndGetUsername(token);
+        return username != null && username.equals(user);
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration()
-                .before(new Date());
+    public CacheStats cacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    public long cacheSize() {
+        return verifiedTokens.estimatedSize();
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(String username, long expiresAtMillis) {
     }
 }
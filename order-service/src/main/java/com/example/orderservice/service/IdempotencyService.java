@@ -0,0 +1,218 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import com.example.orderservice.repository.IdempotencyRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request made with an {@code Idempotency-Key} at most once, so a client retrying
+ * a slow request gets the original response instead of a second order, invoice upload
+ * and notification.
+ *
+ * Two layers: a bounded in-memory cache of this instance's in-flight and completed
+ * responses, where a duplicate simply shares the first attempt's future, and the
+ * {@link IdempotencyRepository}, whose conditional claim settles races between
+ * instances. A duplicate whose key is held by another instance re-tries the claim every
+ * {@code poll-interval-ms} until that attempt completes, its lease runs out (the claim
+ * is then taken over), or {@code wait-timeout} passes (409).
+ *
+ * Keys are scoped to the authenticated caller, so two users can't see or block each
+ * other's requests by choosing the same key. Each key also remembers a hash of the request
+ * it was first used with; reusing it for a request with different parameters gets 422.
+ *
+ * Only successful responses are remembered; after a failure the next retry starts over.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    /** Set on responses that were not produced by this request but replayed from the original. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRepository repository;
+    private final AsyncCache<String, IdempotencyRecord> responses;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final Executor pollDelay;
+
+    public IdempotencyService(IdempotencyRepository repository,
+                              @Value("${orders.idempotency.max-size:100000}") long maxSize,
+                              @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${orders.idempotency.lease:3m}") Duration lease,
+                              @Value("${orders.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              @Value("${orders.idempotency.poll-interval-ms:250}") long pollIntervalMillis) {
+        this.repository = repository;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.ttl = ttl;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollDelay = CompletableFuture.delayedExecutor(pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs {@code action} unless a request by the same principal with the same key has
+     * already succeeded or is in progress, in which case its response is returned once
+     * available, or 422 if that request's {@code requestHash} differs.
+     */
+    public CompletableFuture<ResponseEntity<String>> execute(String principal, String key, String requestHash,
+                                                             Supplier<CompletableFuture<ResponseEntity<String>>> action) {
+        String scopedKey = scope(principal, key);
+        CompletableFuture<IdempotencyRecord> attempt = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> entry = responses.get(scopedKey, (k, executor) -> attempt);
+        if (entry != attempt) {
+            // A duplicate of a request this instance has answered or is still working on
+            return entry.thenApply(record -> replay(record, requestHash));
+        }
+
+        CompletableFuture<Outcome> outcome = claimAndRun(scopedKey, requestHash, action, Instant.now().plus(waitTimeout));
+        outcome.whenComplete((result, e) -> {
+            if (e != null) {
+                // The cache drops failed futures by itself
+                attempt.completeExceptionally(e);
+                return;
+            }
+            attempt.complete(result.record());
+            if (!result.record().completed()) {
+                responses.asMap().remove(scopedKey, attempt);
+            }
+        });
+        return outcome.thenApply(result -> toResponse(result.record(), result.replayed()));
+    }
+
+    /**
+     * Hash of a request's parameters, in order; stored with its key to recognise a retry.
+     */
+    public static String requestHash(Object... parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object parameter : parameters) {
+                byte[] bytes = String.valueOf(parameter).getBytes(StandardCharsets.UTF_8);
+                // Length-prefixed, so ("ab", "c") and ("a", "bc") differ
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public CacheStats stats() {
+        return responses.synchronous().stats();
+    }
+
+    public long size() {
+        return responses.synchronous().estimatedSize();
+    }
+
+    private CompletableFuture<Outcome> claimAndRun(String key, String requestHash,
+                                                   Supplier<CompletableFuture<ResponseEntity<String>>> action,
+                                                   Instant giveUpAt) {
+        String claimId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return repository.claim(key, claimId, requestHash, now.plus(lease), now.plus(ttl)).thenCompose(existing -> {
+            if (existing == null) {
+                return run(key, claimId, requestHash, action);
+            }
+            if (!requestHash.equals(existing.requestHash())) {
+                return CompletableFuture.completedFuture(new Outcome(mismatch(requestHash), false));
+            }
+            if (existing.completed()) {
+                return CompletableFuture.completedFuture(new Outcome(existing, true));
+            }
+            // Held by an attempt on another instance
+            if (Instant.now().isAfter(giveUpAt)) {
+                return CompletableFuture.completedFuture(new Outcome(new IdempotencyRecord(false, HttpStatus.CONFLICT.value(),
+                        "Error: a request with this " + HEADER + " is still in progress", requestHash), false));
+            }
+            return CompletableFuture.runAsync(() -> { }, pollDelay)
+                    .thenCompose(ignored -> claimAndRun(key, requestHash, action, giveUpAt));
+        });
+    }
+
+    private CompletableFuture<Outcome> run(String key, String claimId, String requestHash,
+                                           Supplier<CompletableFuture<ResponseEntity<String>>> action) {
+        CompletableFuture<ResponseEntity<String>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response
+                .thenCompose(result -> {
+                    boolean succeeded = result.getStatusCode().is2xxSuccessful();
+                    IdempotencyRecord record = new IdempotencyRecord(succeeded, result.getStatusCode().value(), result.getBody(), requestHash);
+                    CompletableFuture<Void> stored = succeeded
+                            ? repository.complete(key, claimId, record, Instant.now().plus(ttl))
+                            : repository.release(key, claimId);
+                    // The response stands either way; a record that failed to store only weakens later dedup
+                    return stored.handle((ignored, e) -> {
+                        if (e != null) {
+                            log.warn("Could not {} idempotency key {}", succeeded ? "complete" : "release", key, e);
+                        }
+                        return new Outcome(record, false);
+                    });
+                })
+                .exceptionallyCompose(e -> repository.release(key, claimId).handle((ignored, releaseError) -> {
+                    if (releaseError != null) {
+                        log.warn("Could not release idempotency key {}", key, releaseError);
+                    }
+                    throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                }));
+    }
+
+    // Length-prefixed, so no other principal and key can make the same string
+    static String scope(String principal, String key) {
+        return principal.length() + ":" + principal + ":" + key;
+    }
+
+    private static IdempotencyRecord mismatch(String requestHash) {
+        return new IdempotencyRecord(false, HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Error: this " + HEADER + " was already used for a different request", requestHash);
+    }
+
+    private static ResponseEntity<String> replay(IdempotencyRecord record, String requestHash) {
+        return requestHash.equals(record.requestHash()) ? toResponse(record, true) : toResponse(mismatch(requestHash), false);
+    }
+
+    private static ResponseEntity<String> toResponse(IdempotencyRecord record, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.httpStatus());
+        if (replayed) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        return builder.body(record.body());
+    }
+
+    private record Outcome(IdempotencyRecord record, boolean replayed) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.util.WorkerThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes order notifications to SNS off the request path.
+ *
+ * Notifications go into a bounded queue; worker threads drain it and send up to 10
+ * messages per PublishBatch call, waiting up to {@code notifications.linger-ms} to fill
+ * a batch. Failed entries are retried with exponential backoff and jitter. When the
+ * queue is full, new notifications are dropped and counted rather than blocking the
+ * caller. The counts and the queue length are exported as {@code orders.notifications.*}
+ * meters.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+    // PublishBatch accepts at most 10 entries
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private final SnsClient snsClient;
+    private final String topicArn;
+    private final BlockingQueue<Notification> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final long lingerMillis;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public NotificationDispatcher(SnsClient snsClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notifications.topic-arn:arn:aws:sns:ap-south-1:227457566081:order-notifications}") String topicArn,
+                                  @Value("${notifications.workers:2}") int workerCount,
+                                  @Value("${notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notifications.linger-ms:20}") long lingerMillis,
+                                  @Value("${notifications.max-attempts:5}") int maxAttempts,
+                                  @Value("${notifications.backoff-ms:100}") long backoffMillis,
+                                  @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads) {
+        this.snsClient = snsClient;
+        this.topicArn = topicArn;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.lingerMillis = lingerMillis;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+
+        Gauge.builder("orders.notifications.queued", queue, BlockingQueue::size)
+                .description("Notifications waiting to be published")
+                .register(meterRegistry);
+        counter(meterRegistry, "orders.notifications.enqueued", enqueued, "Notifications accepted into the queue");
+        counter(meterRegistry, "orders.notifications.published", published, "Notifications published to SNS");
+        counter(meterRegistry, "orders.notifications.batches", batches, "PublishBatch calls that succeeded");
+        counter(meterRegistry, "orders.notifications.retried", retried, "Notification publish attempts that were retried");
+        counter(meterRegistry, "orders.notifications.failed", failed, "Notifications given up on or rejected by SNS");
+        counter(meterRegistry, "orders.notifications.dropped", dropped, "Notifications dropped because the queue was full");
+
+        ThreadFactory threads = WorkerThreads.factory("sns-dispatcher-", virtualThreads);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threads.newThread(this::run);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queues a notification without blocking.
+     *
+     * @return false if the queue was full and the notification was dropped
+     */
+    public boolean enqueue(String orderId, String subject, String message) {
+        if (queue.offer(new Notification(orderId, subject, message))) {
+            enqueued.incrementAndGet();
+            return true;
+        }
+        long total = dropped.incrementAndGet();
+        // Log the first drop and then every 1000th, so an overload doesn't flood the log too
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Notification queue full, dropped notification for order {} ({} dropped so far)", orderId, total);
+        }
+        return false;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", (long) queue.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("published", published.get());
+        stats.put("batches", batches.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private static void counter(MeterRegistry meterRegistry, String name, AtomicLong count, String description) {
+        FunctionCounter.builder(name, count, AtomicLong::get)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= MAX_BATCH_SIZE || remaining <= 0) {
+                        break;
+                    }
+                    Notification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Notification worker error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<Notification> batch) throws InterruptedException {
+        List<Notification> pending = new ArrayList<>(batch);
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                if (attempt > maxAttempts) {
+                    failed.addAndGet(pending.size());
+                    pending.forEach(n -> log.error("Giving up on notification for order {} after {} attempts",
+                            n.orderId(), maxAttempts));
+                    return;
+                }
+                retried.addAndGet(pending.size());
+                long delay = backoffMillis * (1L << Math.min(attempt - 2, 10));
+                Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay + 1));
+            }
+            pending = publishOnce(pending);
+        }
+    }
+
+    // Returns the entries that should be retried
+    private List<Notification> publishOnce(List<Notification> pending) {
+        List<PublishBatchRequestEntry> entries = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            Notification notification = pending.get(i);
+            entries.add(PublishBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .subject(notification.subject())
+                    .message(notification.message())
+                    .build());
+        }
+
+        PublishBatchResponse response;
+        try {
+            response = snsClient.publishBatch(PublishBatchRequest.builder()
+                    .topicArn(topicArn)
+                    .publishBatchRequestEntries(entries)
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("PublishBatch of {} notifications failed: {}", pending.size(), e.getMessage());
+            return pending;
+        }
+        batches.incrementAndGet();
+
+        List<Notification> retry = new ArrayList<>();
+        for (BatchResultErrorEntry error : response.failed()) {
+            Notification notification = pending.get(Integer.parseInt(error.id()));
+            if (Boolean.TRUE.equals(error.senderFault())) {
+                // The request itself is bad; sending it again won't help
+                failed.incrementAndGet();
+                log.error("Notification for order {} rejected: {} {}", notification.orderId(),
+                        error.code(), error.message());
+            } else {
+                retry.add(notification);
+            }
+        }
+        published.addAndGet(response.successful().size());
+        return retry;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Workers keep draining what is already queued before they exit
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} notifications were still queued at shutdown", queue.size());
+        }
+    }
+
+    private record Notification(String orderId, String subject, String message) {
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.AnalyticsRollup;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSalesRecord;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.repository.AnalyticsRollupRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the analytics rollups (orders per day, quantity/revenue per product,
+ * total and distinct-product counts) in step with the orders table.
+ *
+ * Every save is turned into a delta against the previously stored version of the
+ * order, so re-saving an order (e.g. after an invoice upload) does not count it twice.
+ */
+@Component
+public class OrderAnalyticsAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderAnalyticsAggregator.class);
+
+    private final AnalyticsRollupRepository rollupRepository;
+
+    public OrderAnalyticsAggregator(AnalyticsRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Applies the difference between the previous and the current version of an order.
+     *
+     * @param previous the item that was replaced, or null for a new order
+     * @param current  the item that was written
+     */
+    public void onOrderSaved(Order previous, Order current) {
+        apply(Change.between(previous, current));
+    }
+
+    /**
+     * Non-blocking {@link #onOrderSaved}. The day and product updates are issued together;
+     * the total follows once they are done, as it needs to know how many products were new.
+     */
+    public CompletableFuture<Void> onOrderSavedAsync(Order previous, Order current) {
+        Change change = Change.between(previous, current);
+
+        List<CompletableFuture<?>> updates = new ArrayList<>();
+        change.dayDeltas.forEach((day, delta) -> {
+            if (delta != 0) {
+                updates.add(rollupRepository.incrementAsync(AnalyticsRollup.TYPE_DAY, day, Map.of("orderCount", delta)));
+            }
+        });
+        List<CompletableFuture<Boolean>> productUpdates = new ArrayList<>();
+        change.productsToUpdate().forEach((productId, delta) -> productUpdates.add(rollupRepository.incrementAsync(
+                AnalyticsRollup.TYPE_PRODUCT, productId, Map.of("quantity", delta.quantity, "revenue", delta.revenue))));
+
+        CompletableFuture<Void> total = CompletableFuture.allOf(productUpdates.toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> {
+                    long newProducts = productUpdates.stream().filter(CompletableFuture::join).count();
+                    Map<String, Number> totalDeltas = totalDeltas(change.orderCountDelta, newProducts);
+                    return totalDeltas.isEmpty()
+                            ? CompletableFuture.completedFuture(null)
+                            : rollupRepository.incrementAsync(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID, totalDeltas)
+                                    .thenAccept(created -> { });
+                });
+        updates.add(total);
+        return CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Applies a batch of written orders with one rollup update per touched day and product.
+     * An order that replaced a stored version contributes only the difference, as in
+     * {@link #onOrderSaved}, so writing the same orders again changes nothing.
+     *
+     * @param previous the replaced versions by orderID; orders without one are new
+     */
+    public void onOrdersWritten(Collection<Order> orders, Map<String, Order> previous) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        long newOrders = orders.stream().filter(order -> !previous.containsKey(order.getOrderID())).count();
+        Change change = new Change(newOrders);
+        for (Order order : orders) {
+            change.add(previous.get(order.getOrderID()), order);
+        }
+        apply(change);
+    }
+
+    private void apply(Change change) {
+        change.dayDeltas.forEach((day, delta) -> {
+            if (delta != 0) {
+                rollupRepository.increment(AnalyticsRollup.TYPE_DAY, day, Map.of("orderCount", delta));
+            }
+        });
+
+        long newProducts = 0;
+        for (Map.Entry<String, ProductTotals> entry : change.productsToUpdate().entrySet()) {
+            ProductTotals delta = entry.getValue();
+            boolean created = rollupRepository.increment(AnalyticsRollup.TYPE_PRODUCT, entry.getKey(),
+                    Map.of("quantity", delta.quantity, "revenue", delta.revenue));
+            if (created) {
+                newProducts++;
+            }
+        }
+
+        Map<String, Number> totalDeltas = totalDeltas(change.orderCountDelta, newProducts);
+        if (!totalDeltas.isEmpty()) {
+            rollupRepository.increment(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID, totalDeltas);
+        }
+    }
+
+    private static Map<String, Number> totalDeltas(long orderCountDelta, long newProducts) {
+        Map<String, Number> totalDeltas = new HashMap<>();
+        if (orderCountDelta != 0) {
+            totalDeltas.put("orderCount", orderCountDelta);
+        }
+        if (newProducts > 0) {
+            totalDeltas.put("distinctProducts", newProducts);
+        }
+        return totalDeltas;
+    }
+
+    /**
+     * Recomputes every rollup from scratch. Used to backfill history written before
+     * the rollups existed or to repair drift after a failed incremental update.
+     *
+     * @return number of orders aggregated
+     */
+    public long rebuild(Iterable<Order> orders) {
+        Totals totals = new Totals();
+        orders.forEach(totals::add);
+        return rebuild(totals);
+    }
+
+    /**
+     * Overwrites the rollups with totals gathered elsewhere, e.g. merged from a parallel scan.
+     *
+     * @return number of orders aggregated
+     */
+    public long rebuild(Totals totals) {
+        totals.dayCounts.forEach((day, count) -> rollupRepository.put(
+                rollup(AnalyticsRollup.TYPE_DAY, day, r -> r.setOrderCount(count))));
+        totals.productTotals.forEach((productId, product) -> rollupRepository.put(
+                rollup(AnalyticsRollup.TYPE_PRODUCT, productId, r -> {
+                    r.setQuantity(product.quantity);
+                    r.setRevenue(product.revenue);
+                })));
+
+        rollupRepository.put(rollup(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID, r -> {
+            r.setOrderCount(totals.orderCount);
+            r.setDistinctProducts((long) totals.productTotals.size());
+        }));
+
+        deleteStale(AnalyticsRollup.TYPE_DAY, totals.dayCounts.keySet());
+        deleteStale(AnalyticsRollup.TYPE_PRODUCT, totals.productTotals.keySet());
+
+        log.info("Rebuilt analytics rollups from {} orders ({} days, {} products)",
+                totals.orderCount, totals.dayCounts.size(), totals.productTotals.size());
+        return totals.orderCount;
+    }
+
+    /**
+     * Day bucket for an order, matching the yyyy-MM-dd prefix of its ISO-8601 orderDate.
+     */
+    static String dayOf(Order order) {
+        return dayOf(order.getOrderDate(), order.getOrderID());
+    }
+
+    private static String dayOf(String orderDate, String orderId) {
+        if (orderDate == null || orderDate.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(orderDate.substring(0, 10)).toString();
+        } catch (DateTimeParseException e) {
+            log.warn("Invalid orderDate {} on order {}", orderDate, orderId);
+            return null;
+        }
+    }
+
+    private static void accumulate(Order order, int sign,
+                                   Map<String, Long> dayDeltas,
+                                   Map<String, ProductTotals> productDeltas) {
+        accumulate(order.getOrderID(), order.getOrderDate(), order.getItems(), sign, dayDeltas, productDeltas);
+    }
+
+    private static void accumulate(String orderId, String orderDate, List<ProductItem> items, int sign,
+                                   Map<String, Long> dayDeltas,
+                                   Map<String, ProductTotals> productDeltas) {
+        String day = dayOf(orderDate, orderId);
+        if (day != null) {
+            dayDeltas.merge(day, (long) sign, Long::sum);
+        }
+        if (items == null) {
+            return;
+        }
+        for (ProductItem item : items) {
+            if (item.getProductId() == null) {
+                continue;
+            }
+            ProductTotals totals = productDeltas.computeIfAbsent(item.getProductId(), id -> new ProductTotals());
+            totals.quantity += (long) sign * item.getQuantity();
+            totals.revenue += sign * (item.getQuantity() * item.getUnitPrice());
+        }
+    }
+
+    private void deleteStale(String rollupType, Set<String> live) {
+        for (AnalyticsRollup existing : rollupRepository.findByType(rollupType)) {
+            if (!live.contains(existing.getRollupId())) {
+                rollupRepository.delete(rollupType, existing.getRollupId());
+            }
+        }
+    }
+
+    private static AnalyticsRollup rollup(String rollupType, String rollupId,
+                                          Consumer<AnalyticsRollup> values) {
+        AnalyticsRollup rollup = new AnalyticsRollup();
+        rollup.setRollupType(rollupType);
+        rollup.setRollupId(rollupId);
+        values.accept(rollup);
+        return rollup;
+    }
+
+    /**
+     * Absolute rollup values for a set of orders. Not thread-safe; give each scan
+     * segment its own instance and {@link #merge} them afterwards.
+     */
+    public static final class Totals {
+        private final Map<String, Long> dayCounts = new HashMap<>();
+        private final Map<String, ProductTotals> productTotals = new HashMap<>();
+        private long orderCount;
+
+        public void add(Order order) {
+            accumulate(order, 1, dayCounts, productTotals);
+            orderCount++;
+        }
+
+        public void add(OrderSalesRecord order) {
+            accumulate(order.orderID(), order.orderDate(), order.items(), 1, dayCounts, productTotals);
+            orderCount++;
+        }
+
+        public Totals merge(Totals other) {
+            other.dayCounts.forEach((day, count) -> dayCounts.merge(day, count, Long::sum));
+            other.productTotals.forEach((productId, product) -> {
+                ProductTotals mine = productTotals.computeIfAbsent(productId, id -> new ProductTotals());
+                mine.quantity += product.quantity;
+                mine.revenue += product.revenue;
+            });
+            orderCount += other.orderCount;
+            return this;
+        }
+    }
+
+    /**
+     * Rollup deltas for one save or batch of inserts.
+     */
+    private static final class Change {
+        final Map<String, Long> dayDeltas = new HashMap<>();
+        final Map<String, ProductTotals> productDeltas = new HashMap<>();
+        final Set<String> previousProducts = new HashSet<>();
+        final long orderCountDelta;
+
+        Change(long orderCountDelta) {
+            this.orderCountDelta = orderCountDelta;
+        }
+
+        static Change between(Order previous, Order current) {
+            Change change = new Change(previous == null ? 1 : 0);
+            change.add(previous, current);
+            return change;
+        }
+
+        void add(Order previous, Order current) {
+            if (previous != null) {
+                accumulate(previous, -1, dayDeltas, productDeltas);
+                if (previous.getItems() != null) {
+                    previous.getItems().stream()
+                            .map(ProductItem::getProductId)
+                            .filter(Objects::nonNull)
+                            .forEach(previousProducts::add);
+                }
+            }
+            accumulate(current, 1, dayDeltas, productDeltas);
+        }
+
+        // A product whose totals did not change needs no update, unless it is new
+        Map<String, ProductTotals> productsToUpdate() {
+            Map<String, ProductTotals> changed = new HashMap<>(productDeltas);
+            changed.entrySet().removeIf(e -> e.getValue().isZero() && previousProducts.contains(e.getKey()));
+            return changed;
+        }
+    }
+
+    private static final class ProductTotals {
+        long quantity;
+        double revenue;
+
+        boolean isZero() {
+            return quantity == 0 && revenue == 0;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.util.WorkerThreads;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background half of accept-then-process order creation.
+ *
+ * The controller stores the order as PENDING and returns its ID; this pipeline then
+ * runs invoice upload and persistence of the final order on worker threads, retrying
+ * each stage with exponential backoff, and queues the SNS notification. When the work queue
+ * is full the submitting request thread runs the pipeline itself, which slows
+ * clients down instead of dropping orders.
+ *
+ * The submitted order is left as it is: each outcome is built on a copy and only becomes
+ * visible to readers once that copy has been saved.
+ *
+ * With virtual threads every order gets its own thread, so up to workers + queue-capacity
+ * orders are in flight at once instead of {@code workers}; the same overflow rule applies.
+ */
+@Component
+public class OrderCreationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCreationPipeline.class);
+
+    private final OrderRepository orderRepository;
+    private final S3Service s3Service;
+    private final SnsService snsService;
+    private final OrderEventBroadcaster eventBroadcaster;
+    private final ExecutorService executor;
+    // Virtual mode only: admission limit standing in for the platform pool's bounded queue
+    private final Semaphore virtualPermits;
+    private final Path spoolDir;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OrderCreationPipeline(OrderRepository orderRepository, S3Service s3Service, SnsService snsService,
+                                 OrderEventBroadcaster eventBroadcaster,
+                                 @Value("${orders.pipeline.workers:4}") int workers,
+                                 @Value("${orders.pipeline.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${orders.pipeline.max-attempts:3}") int maxAttempts,
+                                 @Value("${orders.pipeline.backoff-ms:200}") long backoffMillis,
+                                 @Value("${orders.pipeline.spool-dir:${java.io.tmpdir}/order-invoices}") String spoolDir,
+                                 @Value(WorkerThreads.VIRTUAL_THREADS_PROPERTY) boolean virtualThreads) {
+        this.orderRepository = orderRepository;
+        this.s3Service = s3Service;
+        this.snsService = snsService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.spoolDir = Paths.get(spoolDir);
+
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(WorkerThreads.factory("order-pipeline-", true));
+            this.virtualPermits = new Semaphore(workers + queueCapacity);
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> new Thread(runnable, "order-pipeline-" + counter.getAndIncrement()),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            this.virtualPermits = null;
+        }
+    }
+
+    /**
+     * Copies the uploaded invoice out of the request's temp storage, which the
+     * container deletes once the request completes.
+     */
+    public Path spool(MultipartFile invoice) throws IOException {
+        Files.createDirectories(spoolDir);
+        Path target = Files.createTempFile(spoolDir, "invoice-", ".upload");
+        invoice.transferTo(target);
+        return target;
+    }
+
+    /**
+     * Deletes a spooled invoice that is no longer needed; failures are only logged.
+     */
+    public void discard(Path spooledInvoice) {
+        try {
+            Files.deleteIfExists(spooledInvoice);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled invoice {}", spooledInvoice, e);
+        }
+    }
+
+    /**
+     * Completes a PENDING order in the background. The spooled invoice is deleted afterwards.
+     */
+    public void submit(Order order, String invoiceKey, Path spooledInvoice, String contentType) {
+        Runnable task = () -> process(order, invoiceKey, spooledInvoice, contentType);
+        if (virtualPermits == null) {
+            executor.execute(task);
+        } else if (virtualPermits.tryAcquire()) {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    virtualPermits.release();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private void process(Order order, String invoiceKey, Path spooledInvoice, String contentType) {
+        Order completed = Order.copyOf(order);
+        completed.setInvoiceUrl(invoiceKey);
+        completed.setStatus(OrderStatus.COMPLETED);
+        try {
+            runStage("invoice upload", order, () -> s3Service.uploadFile(invoiceKey, spooledInvoice, contentType));
+            runStage("persistence", order, () -> orderRepository.saveOrder(completed));
+        } catch (Exception e) {
+            log.error("Order {} failed in the creation pipeline", order.getOrderID(), e);
+            Order failed = Order.copyOf(order);
+            failed.setStatus(OrderStatus.FAILED);
+            try {
+                orderRepository.saveOrder(failed);
+                eventBroadcaster.orderUpdated(failed);
+            } catch (Exception saveError) {
+                log.error("Could not mark order {} as FAILED", order.getOrderID(), saveError);
+            }
+            return;
+        } finally {
+            discard(spooledInvoice);
+        }
+
+        eventBroadcaster.orderUpdated(completed);
+
+        // The order is complete at this point; a lost notification does not fail it.
+        // Publishing (with its own retries) happens on the notification dispatcher.
+        snsService.publishOrderNotification(completed);
+    }
+
+    private void runStage(String stage, Order order, Stage action) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long delay = backoffMillis * (1L << (attempt - 1));
+                log.warn("Stage '{}' failed for order {} (attempt {}/{}), retrying in {} ms",
+                        stage, order.getOrderID(), attempt, maxAttempts, delay, e);
+                Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Orders were still being processed at shutdown");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderCountersDeltaDTO;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes order events to dashboards over Server-Sent Events, so they no longer poll
+ * the list and analytics endpoints.
+ *
+ * Publishing never blocks: each event is serialized once and offered to every
+ * subscriber's bounded buffer. A small sender pool drains the buffers; a subscriber is
+ * scheduled on it only while it has pending events, so idle connections hold no thread.
+ * A subscriber whose buffer overflows is too slow to keep up and is disconnected; its
+ * EventSource reconnects and re-reads the current state.
+ *
+ * A send to a peer that has stopped reading blocks its sender thread until the
+ * container's write timeout. A watchdog disconnects a subscriber whose send has taken
+ * longer than {@code send-timeout-ms} and adds a sender thread in place of the blocked
+ * one (up to {@code max-stalled-senders}), so stalled peers do not hold up the rest.
+ *
+ * Events: {@code order-created} and {@code order-updated} carry the order,
+ * {@code counters} carries the change to the analytics summary.
+ */
+@Component
+public class OrderEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventBroadcaster.class);
+
+    private final ObjectWriter orderWriter;
+    private final ObjectWriter countersWriter;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Subscribers a sender thread is working on, including ones already disconnected
+    private final Set<Subscriber> draining = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong nextEventId = new AtomicLong();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService timer;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int senderCount;
+    private final long sendTimeoutNanos;
+    private final int maxStalledSenders;
+    // Sender threads blocked in a send that the watchdog gave up on; guarded by senders
+    private int stalledSenders;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong slowConsumersDropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public OrderEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${orders.events.max-subscribers:10000}") int maxSubscribers,
+                                 @Value("${orders.events.buffer-size:256}") int bufferSize,
+                                 @Value("${orders.events.senders:2}") int senderCount,
+                                 @Value("${orders.events.heartbeat-ms:15000}") long heartbeatMillis,
+                                 @Value("${orders.events.timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${orders.events.send-timeout-ms:5000}") long sendTimeoutMillis,
+                                 @Value("${orders.events.max-stalled-senders:64}") int maxStalledSenders) {
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        this.countersWriter = objectMapper.writerFor(OrderCountersDeltaDTO.class);
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.senderCount = senderCount;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxStalledSenders = maxStalledSenders;
+
+        // Platform threads even when spring.threads.virtual.enabled is on: SseEmitter.send is
+        // synchronized, and a virtual thread blocked in it on a stalled socket would pin its carrier
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory senderThreads = runnable -> {
+            Thread thread = new Thread(runnable, "order-events-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.senders = new ThreadPoolExecutor(senderCount, senderCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), senderThreads);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-events-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A comment line now and then stops proxies closing idle streams and reveals dead ones
+        timer.scheduleAtFixedRate(() -> broadcast(SseEmitter.event().comment("keepalive").build()),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(10, sendTimeoutMillis / 2);
+        timer.scheduleAtFixedRate(this::abandonStalledSends, watchdogMillis, watchdogMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("orders.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Connected order event streams")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.events.slow.consumers.dropped", slowConsumersDropped, AtomicLong::get)
+                .description("Order event streams disconnected because their buffer overflowed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for one client.
+     *
+     * @return null if the subscriber limit has been reached
+     */
+    public SseEmitter subscribe() {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejected.incrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    public void orderCreated(Order order) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publish("order-created", orderWriter, order);
+        OrderCountersDeltaDTO delta = new OrderCountersDeltaDTO();
+        delta.setDay(OrderAnalyticsAggregator.dayOf(order));
+        delta.setOrders(1);
+        delta.setAmount(order.getAmount() != null ? order.getAmount() : 0.0);
+        publish("counters", countersWriter, delta);
+    }
+
+    public void orderUpdated(Order order) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publish("order-updated", orderWriter, order);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("subscribers", (long) subscriberCount.get());
+        stats.put("published", published.get());
+        stats.put("slowConsumersDropped", slowConsumersDropped.get());
+        stats.put("stalledSenders", (long) stalledSenders());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    private void publish(String name, ObjectWriter writer, Object payload) {
+        String json;
+        try {
+            json = writer.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event", name, e);
+            return;
+        }
+        // Built once and shared by every subscriber
+        broadcast(SseEmitter.event()
+                .id(Long.toString(nextEventId.incrementAndGet()))
+                .name(name)
+                .data(json)
+                .build());
+        published.incrementAndGet();
+    }
+
+    private void broadcast(Set<DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(frame)) {
+                dropSlowConsumer(subscriber, "buffer full");
+            }
+        }
+    }
+
+    private void abandonStalledSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : draining) {
+            if (subscriber.abandonSendStartedBefore(now - sendTimeoutNanos)) {
+                // The blocked thread is released when the container's write timeout fails the send
+                resizeSenders(1);
+                if (!subscriber.closed) {
+                    dropSlowConsumer(subscriber, "send stalled");
+                }
+            }
+        }
+    }
+
+    private void dropSlowConsumer(Subscriber subscriber, String reason) {
+        long total = slowConsumersDropped.incrementAndGet();
+        // Log the first drop and then every 100th, so a burst doesn't flood the log
+        if (total == 1 || total % 100 == 0) {
+            log.warn("Order event {}, disconnecting slow subscriber ({} dropped so far)", reason, total);
+        }
+        subscriber.close();
+    }
+
+    private void resizeSenders(int stalledDelta) {
+        synchronized (senders) {
+            stalledSenders += stalledDelta;
+            int size = senderCount + Math.min(stalledSenders, maxStalledSenders);
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (size > senders.getMaximumPoolSize()) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private int stalledSenders() {
+        synchronized (senders) {
+            return stalledSenders;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdown();
+    }
+
+    /**
+     * One connected client. At most one sender thread drains its buffer at a time, so
+     * events reach each client in publish order. The emitter is only ever sent to and
+     * completed from that task: a send stuck on a stalled socket holds the emitter's
+     * lock, and the publishing thread must not wait for it.
+     */
+    private final class Subscriber implements Runnable {
+        private static final long NOT_SENDING = 0;
+        private static final long ABANDONED = -1;
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        // System.nanoTime() when the current send started, NOT_SENDING, or ABANDONED once the
+        // watchdog has replaced the thread blocked in it
+        private final AtomicLong sendStarted = new AtomicLong(NOT_SENDING);
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        // Returns false if the buffer is full
+        boolean offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return true;
+            }
+            if (!buffer.offer(frame)) {
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        void close() {
+            closed = true;
+            buffer.clear();
+            remove(this);
+            schedule();
+        }
+
+        // True if a send that started before the deadline is still running; it is then abandoned
+        boolean abandonSendStartedBefore(long deadline) {
+            long started = sendStarted.get();
+            return started != NOT_SENDING && started != ABANDONED && started - deadline < 0
+                    && sendStarted.compareAndSet(started, ABANDONED);
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            draining.add(this);
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed && (frame = buffer.poll()) != null) {
+                    // A start time that happens to equal a marker only hides this one send from the watchdog
+                    sendStarted.set(System.nanoTime());
+                    try {
+                        emitter.send(frame);
+                    } finally {
+                        if (sendStarted.getAndSet(NOT_SENDING) == ABANDONED) {
+                            resizeSenders(-1);
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the emitter already completed
+                closed = true;
+                remove(this);
+            } finally {
+                draining.remove(this);
+                scheduled.set(false);
+            }
+            if (closed) {
+                if (completed.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } else if (!buffer.isEmpty()) {
+                // An event arrived after the last poll but before the flag was cleared
+                schedule();
+            }
+        }
+    }
+}
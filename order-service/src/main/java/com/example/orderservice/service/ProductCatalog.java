@@ -0,0 +1,179 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory snapshot of the Products table.
+ *
+ * The snapshot (products by ID, the list, and the list already serialized to JSON)
+ * is immutable and swapped atomically, so readers never take a lock. It is rebuilt
+ * on a schedule and patched in place when a product is created through this service.
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+    // Products created while a refresh scan is running; guarded by publishLock
+    private List<Product> createdDuringRefresh;
+
+    public ProductCatalog(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Product createProduct(Product product) {
+        Product created = productService.createProduct(product);
+        publishCreated(created);
+        return created;
+    }
+
+    /**
+     * {@link #createProduct} without blocking the calling thread on the write.
+     */
+    public CompletableFuture<Product> createProductAsync(Product product) {
+        return productService.createProductAsync(product).thenApply(created -> {
+            publishCreated(created);
+            return created;
+        });
+    }
+
+    private void publishCreated(Product created) {
+        publishLock.lock();
+        try {
+            if (createdDuringRefresh != null) {
+                createdDuringRefresh.add(created);
+            }
+            Snapshot current = snapshot;
+            if (current != null) {
+                Map<String, Product> byId = new LinkedHashMap<>(current.byId());
+                byId.put(created.getProductId(), created);
+                snapshot = build(byId);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    public List<Product> getAllProducts() {
+        Snapshot current = snapshot;
+        return current != null ? current.products() : productService.getAllProducts();
+    }
+
+    /**
+     * The product list as JSON, serialized once per snapshot rather than per request.
+     */
+    public byte[] getAllProductsJson() throws JsonProcessingException {
+        Snapshot current = snapshot;
+        return current != null ? current.json() : objectMapper.writeValueAsBytes(productService.getAllProducts());
+    }
+
+    public Optional<Product> getProductById(String id) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            Product product = current.byId().get(id);
+            if (product != null) {
+                return Optional.of(product);
+            }
+        }
+        // Not in the snapshot yet, e.g. created by another instance since the last refresh
+        return productService.getProductById(id);
+    }
+
+    /**
+     * {@link #getProductById} that only goes to the store, without blocking, on a snapshot miss.
+     */
+    public CompletableFuture<Optional<Product>> getProductByIdAsync(String id) {
+        Snapshot current = snapshot;
+        Product product = current != null ? current.byId().get(id) : null;
+        return product != null ? CompletableFuture.completedFuture(Optional.of(product))
+                : productService.getProductByIdAsync(id);
+    }
+
+    /**
+     * Resolves many products at once: snapshot hits first, then one BatchGetItem
+     * round trip per 100 missing IDs. Unknown IDs are absent from the result.
+     */
+    public Map<String, Product> getProductsByIds(Collection<String> ids) {
+        Snapshot current = snapshot;
+        Map<String, Product> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : ids) {
+            Product product = current != null && id != null ? current.byId().get(id) : null;
+            if (product != null) {
+                found.put(id, product);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(productService.getProductsByIds(missing));
+        }
+        return found;
+    }
+
+    @Scheduled(fixedDelayString = "${products.catalog.refresh-interval-ms:60000}")
+    public void refresh() {
+        publishLock.lock();
+        try {
+            createdDuringRefresh = new ArrayList<>();
+        } finally {
+            publishLock.unlock();
+        }
+
+        List<Product> products;
+        try {
+            products = productService.getAllProducts();
+        } catch (Exception e) {
+            log.warn("Product catalog refresh failed, keeping the previous snapshot", e);
+            publishLock.lock();
+            try {
+                createdDuringRefresh = null;
+            } finally {
+                publishLock.unlock();
+            }
+            return;
+        }
+
+        Map<String, Product> byId = new LinkedHashMap<>();
+        products.forEach(p -> byId.put(p.getProductId(), p));
+
+        publishLock.lock();
+        try {
+            createdDuringRefresh.forEach(p -> byId.put(p.getProductId(), p));
+            createdDuringRefresh = null;
+            snapshot = build(byId);
+        } finally {
+            publishLock.unlock();
+        }
+        log.debug("Product catalog refreshed with {} products", byId.size());
+    }
+
+    private Snapshot build(Map<String, Product> byId) {
+        List<Product> products = List.copyOf(byId.values());
+        try {
+            return new Snapshot(Collections.unmodifiableMap(byId), products,
+                    objectMapper.writeValueAsBytes(products));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product catalog", e);
+        }
+    }
+
+    private record Snapshot(Map<String, Product> byId, List<Product> products, byte[] json) {
+    }
+}
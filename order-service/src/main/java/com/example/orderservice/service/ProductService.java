@@ -1,40 +1,51 @@
 package com.example.orderservice.service;
 
 import com.example.orderservice.model.Product;
+import com.example.orderservice.repository.ProductRepository;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.*;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ProductService {
 
-    private final DynamoDbEnhancedClient enhancedClient;
-    private final DynamoDbTable<Product> productTable;
+    private final ProductRepository productRepository;
 
-    public ProductService(DynamoDbClient dynamoDbClient) {
-        this.enhancedClient = DynamoDbEnhancedClient.builder()
-                .dynamoDbClient(dynamoDbClient)
-                .build();
-
-        this.productTable = enhancedClient.table("Products", TableSchema.fromBean(Product.class));
+    public ProductService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
     }
 
     public Product createProduct(Product product) {
         product.setProductId(UUID.randomUUID().toString());
         product.setCreatedAt(java.time.Instant.now().toString());
-        productTable.putItem(product);
+        productRepository.save(product);
         return product;
     }
 
+    public CompletableFuture<Product> createProductAsync(Product product) {
+        product.setProductId(UUID.randomUUID().toString());
+        product.setCreatedAt(java.time.Instant.now().toString());
+        return productRepository.saveAsync(product).thenApply(saved -> product);
+    }
+
     public List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
-        productTable.scan().items().forEach(products::add);
-        return products;
+        return productRepository.findAll();
     }
 
     public Optional<Product> getProductById(String id) {
-        return Optional.ofNullable(productTable.getItem(r -> r.key(k -> k.partitionValue(id))));
+        return productRepository.findById(id);
+    }
+
+    public CompletableFuture<Optional<Product>> getProductByIdAsync(String id) {
+        return productRepository.findByIdAsync(id);
+    }
+
+    /**
+     * Resolves many products in as few round trips as the store allows (one BatchGetItem
+     * per 100 IDs on DynamoDB). Unknown IDs are absent from the result.
+     */
+    public Map<String, Product> getProductsByIds(Collection<String> ids) {
+        return productRepository.findByIds(ids);
     }
 }
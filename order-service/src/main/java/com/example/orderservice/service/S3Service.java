@@ -1,8 +1,21 @@
 package com.example.orderservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
@@ -10,33 +23,201 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class S3Service {
 
+    private static final Logger log = LoggerFactory.getLogger(S3Service.class);
+
+    // S3 rejects multipart parts smaller than 5 MiB (except the last one)
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final S3Presigner s3Presigner;
     private final String bucketName = "order-invoice-gokul"; // Replace with your actual bucket
+    private final long multipartThreshold;
+    private final long partSize;
+    // Presigning is local CPU work (no request), so the SDK call metrics don't cover it
+    private final Timer presignTimer;
+    private final Duration presignValidity;
+    // key -> presigned URL, dropped a margin before the URL itself expires
+    private final Cache<String, String> presignedUrls;
 
-    public S3Service(S3Client s3Client, S3Presigner s3Presigner) {
+    public S3Service(S3Client s3Client, S3AsyncClient s3AsyncClient, S3Presigner s3Presigner, MeterRegistry meterRegistry,
+                     @Value("${s3.upload.multipart-threshold-bytes:16777216}") long multipartThreshold,
+                     @Value("${s3.upload.part-size-bytes:8388608}") long partSize,
+                     @Value("${s3.presign.validity:15m}") Duration presignValidity,
+                     @Value("${s3.presign.cache.max-size:10000}") long presignCacheMaxSize,
+                     @Value("${s3.presign.cache.refresh-before-expiry:1m}") Duration refreshBeforeExpiry) {
         this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
         this.s3Presigner = s3Presigner;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.presignTimer = Timer.builder("s3.presign")
+                .description("Generating presigned invoice download URLs")
+                .register(meterRegistry);
+        if (!refreshBeforeExpiry.minus(presignValidity).isNegative()) {
+            throw new IllegalArgumentException("s3.presign.cache.refresh-before-expiry must be shorter than s3.presign.validity");
+        }
+        this.presignValidity = presignValidity;
+        this.presignedUrls = Caffeine.newBuilder()
+                .maximumSize(presignCacheMaxSize)
+                .expireAfterWrite(presignValidity.minus(refreshBeforeExpiry))
+                .recordStats()
+                .build();
     }
 
+    /**
+     * Streams the file to S3 without copying it onto the heap. Each attempt re-opens
+     * the multipart stream (backed by the container's temp file), so SDK retries work.
+     * Files of at least {@code s3.upload.multipart-threshold-bytes} go up as a multipart upload.
+     */
     public String uploadFile(String key, MultipartFile file) throws IOException {
-        System.out.println("Uploading to S3 key: " + key);
-        // Upload file to S3
+        return upload(key, file, file.getSize(), file.getContentType());
+    }
+
+    /**
+     * Same as {@link #uploadFile(String, MultipartFile)} for a file already on local disk.
+     */
+    public String uploadFile(String key, Path file, String contentType) throws IOException {
+        return upload(key, new FileSystemResource(file), Files.size(file), contentType);
+    }
+
+    /**
+     * Non-blocking upload of a file on local disk; no thread waits on the network while it
+     * runs. Above the multipart threshold the client sends the parts concurrently.
+     *
+     * @return the presigned download URL, once the upload has completed
+     */
+    public CompletableFuture<String> uploadFileAsync(String key, Path file, String contentType) {
         PutObjectRequest putRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
-                .contentType(file.getContentType())
+                .contentType(contentType != null ? contentType : "application/octet-stream")
                 .build();
+        CompletableFuture<PutObjectResponse> upload = s3AsyncClient.putObject(putRequest, AsyncRequestBody.fromFile(file));
+        CompletableFuture<String> url = upload.thenApply(response -> generatePresignedUrl(key));
+        // Cancelling the returned future aborts the upload itself
+        url.whenComplete((result, e) -> {
+            if (e instanceof CancellationException) {
+                upload.cancel(true);
+            }
+        });
+        return url;
+    }
+
+    private String upload(String key, InputStreamSource source, long size, String contentType) {
+        log.debug("Uploading {} bytes to S3 key {}", size, key);
+        String bodyContentType = contentType != null ? contentType : "application/octet-stream";
 
-        s3Client.putObject(putRequest, RequestBody.fromBytes(file.getBytes()));
+        if (size >= multipartThreshold) {
+            uploadMultipart(key, source, size, contentType, bodyContentType);
+        } else {
+            PutObjectRequest putRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .build();
+
+            s3Client.putObject(putRequest, RequestBody.fromContentProvider(
+                    slice(source, 0, size), size, bodyContentType));
+        }
 
         // Generate pre-signed URL (valid for 15 minutes)
+        // The URL itself is a bearer credential, so it is not logged
+        return generatePresignedUrl(key);
+    }
+
+    private void uploadMultipart(String key, InputStreamSource source, long size,
+                                 String contentType, String bodyContentType) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .build())
+                .uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(length)
+                                .build(),
+                        RequestBody.fromContentProvider(slice(source, offset, length), length, bodyContentType));
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (RuntimeException e) {
+            // Don't leave orphaned parts behind (they are billed until aborted)
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    /**
+     * A presigned download URL for the key, valid for at least
+     * {@code s3.presign.cache.refresh-before-expiry}. URLs are cached per key and reused
+     * until then, so repeated requests for the same invoice skip the SigV4 signing.
+     */
+    public String generatePresignedUrl(String key) {
+        return presignedUrls.get(key, this::presign);
+    }
+
+    /**
+     * {@link #generatePresignedUrl} for many keys at once; cache misses are signed in parallel.
+     *
+     * @return key -> URL for every distinct key
+     */
+    public Map<String, String> generatePresignedUrls(Collection<String> keys) {
+        return presignedUrls.getAll(keys, missing -> {
+            Map<String, String> signed = new ConcurrentHashMap<>();
+            missing.parallelStream().forEach(key -> signed.put(key, presign(key)));
+            return signed;
+        });
+    }
+
+    public CacheStats presignCacheStats() {
+        return presignedUrls.stats();
+    }
+
+    public long presignCacheSize() {
+        return presignedUrls.estimatedSize();
+    }
+
+    private String presign(String key) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
@@ -44,32 +225,76 @@ public class S3Service {
 
         GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
                 .getObjectRequest(getObjectRequest)
-                .signatureDuration(Duration.ofMinutes(15))
+                .signatureDuration(presignValidity)
                 .build();
 
+        PresignedGetObjectRequest presignedUrl = presignTimer.record(() -> s3Presigner.presignGetObject(presignRequest));
 
-        PresignedGetObjectRequest presignedUrl = s3Presigner.presignGetObject(presignRequest);
+        return presignedUrl.url().toString();
+    }
 
-        System.out.println("Generated pre-signed URL: " + presignedUrl.url());
+    /**
+     * Opens a fresh stream over [offset, offset + length) of the file for every attempt.
+     */
+    private static ContentStreamProvider slice(InputStreamSource source, long offset, long length) {
+        return () -> {
+            try {
+                InputStream in = source.getInputStream();
+                in.skipNBytes(offset);
+                return new BoundedInputStream(in, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
 
-        return presignedUrl.url().toString();
-    }
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
 
-    public String generatePresignedUrl(String key) {
-    GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-            .bucket(bucketName)
-            .key(key)
-            .build();
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
 
-    GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-            .getObjectRequest(getObjectRequest)
-            .signatureDuration(Duration.ofMinutes(15)) // Adjust as needed
-            .build();
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
 
-    PresignedGetObjectRequest presignedUrl = s3Presigner.presignGetObject(presignRequest);
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
 
-    return presignedUrl.url().toString();
-}
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
 
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
@@ -1,38 +1,98 @@
 package com.example.orderservice.service;
 
-import com.example.orderservice.model.Order;
+import com.example.orderservice.dto.AnalyticsSummaryDTO;
+import com.example.orderservice.dto.DailyOrdersDTO;
+import com.example.orderservice.model.AnalyticsRollup;
 import com.example.orderservice.model.ProductAnalytics;
-import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.repository.AnalyticsRollupRepository;
+import com.example.orderservice.repository.OrderRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
+/**
+ * Serves analytics from the rollups maintained by {@link OrderAnalyticsAggregator},
+ * so each call costs O(days + products) reads instead of a scan of the orders table.
+ */
 @Service
 public class SalesAnalyticsService {
 
-    private final DynamoDbEnhancedClient enhancedClient;
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("EEE");
 
-    public SalesAnalyticsService(DynamoDbEnhancedClient enhancedClient) {
-        this.enhancedClient = enhancedClient;
+    private final AnalyticsRollupRepository rollupRepository;
+    private final OrderAnalyticsAggregator aggregator;
+    private final OrderRepository orderRepository;
+    private final int rebuildScanSegments;
+
+    public SalesAnalyticsService(AnalyticsRollupRepository rollupRepository,
+                                 OrderAnalyticsAggregator aggregator,
+                                 OrderRepository orderRepository,
+                                 @Value("${dynamodb.scan.segments.analytics:8}") int rebuildScanSegments) {
+        this.rollupRepository = rollupRepository;
+        this.aggregator = aggregator;
+        this.orderRepository = orderRepository;
+        this.rebuildScanSegments = rebuildScanSegments;
     }
 
     public List<ProductAnalytics> getSalesByProduct() {
-        DynamoDbTable<Order> orderTable = enhancedClient.table("Orders", Order.getTableSchema());
+        List<ProductAnalytics> result = new ArrayList<>();
+        for (AnalyticsRollup rollup : rollupRepository.findByType(AnalyticsRollup.TYPE_PRODUCT)) {
+            result.add(new ProductAnalytics(rollup.getRollupId(),
+                    (int) valueOf(rollup.getQuantity()),
+                    rollup.getRevenue() != null ? rollup.getRevenue() : 0));
+        }
+        return result;
+    }
+
+    /**
+     * Order counts for the given number of days ending today, oldest first.
+     */
+    public List<DailyOrdersDTO> getOrdersByDay(LocalDate today, int days) {
+        LocalDate from = today.minusDays(days - 1L);
 
-        Map<String, ProductAnalytics> map = new HashMap<>();
+        Map<String, Long> countsByDay = new HashMap<>();
+        for (AnalyticsRollup rollup : rollupRepository.findRange(AnalyticsRollup.TYPE_DAY, from.toString(), today.toString())) {
+            countsByDay.put(rollup.getRollupId(), valueOf(rollup.getOrderCount()));
+        }
+
+        List<DailyOrdersDTO> result = new ArrayList<>(days);
+        for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+            int orders = (int) countsByDay.getOrDefault(date.toString(), 0L).longValue();
+            result.add(new DailyOrdersDTO(date.format(DAY_NAME), orders));
+        }
+        return result;
+    }
 
-        orderTable.scan().items().forEach(order -> {
-            for (ProductItem item : order.getItems()) {
-                map.putIfAbsent(item.getProductId(), new ProductAnalytics(item.getProductId(), 0, 0));
-                ProductAnalytics entry = map.get(item.getProductId());
-                entry.setQuantity(entry.getQuantity() + item.getQuantity());
-                entry.setRevenue(entry.getRevenue() + (item.getQuantity() * item.getUnitPrice()));
-            }
-        });
+    public AnalyticsSummaryDTO getSummary(LocalDate today) {
+        Optional<AnalyticsRollup> total = rollupRepository.get(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID);
+        long ordersToday = rollupRepository.get(AnalyticsRollup.TYPE_DAY, today.toString())
+                .map(r -> valueOf(r.getOrderCount()))
+                .orElse(0L);
+
+        return new AnalyticsSummaryDTO(
+                (int) total.map(r -> valueOf(r.getOrderCount())).orElse(0L).longValue(),
+                (int) total.map(r -> valueOf(r.getDistinctProducts())).orElse(0L).longValue(),
+                (int) ordersToday);
+    }
+
+    /**
+     * Recomputes all rollups with one parallel, projected pass over the orders table.
+     *
+     * @return number of orders aggregated
+     */
+    public long rebuildRollups() {
+        OrderAnalyticsAggregator.Totals totals = orderRepository.aggregateOrderSales(rebuildScanSegments,
+                OrderAnalyticsAggregator.Totals::new,
+                OrderAnalyticsAggregator.Totals::add,
+                OrderAnalyticsAggregator.Totals::merge);
+        return aggregator.rebuild(totals);
+    }
 
-        return new ArrayList<>(map.values());
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
     }
 }
@@ -1,34 +1,26 @@
 package com.example.orderservice.service;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
 import com.example.orderservice.model.Order;
 
 @Service
 public class SnsService {
 
-    private final SnsClient snsClient;
-    private final String topicArn = "arn:aws:sns:ap-south-1:227457566081:order-notifications"; // Replace with actual ARN
+    private final NotificationDispatcher dispatcher;
 
-    public SnsService(SnsClient snsClient) {
-        this.snsClient = snsClient;
+    public SnsService(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
     }
 
-    @Async
-    public void publishOrderNotification(Order order) {
+    /**
+     * Queues the "new order" notification; it is published in a batch by the dispatcher.
+     *
+     * @return false if the notification queue was full and the message was dropped
+     */
+    public boolean publishOrderNotification(Order order) {
         String message = String.format("New order created: %s for ₹%.2f",
                 order.getCustomerName(), order.getAmount());
 
-        PublishRequest request = PublishRequest.builder()
-                .message(message)
-                .subject("New Order Created")
-                .topicArn(topicArn)
-                .build();
-
-        snsClient.publish(request);
-
-        System.out.println("✅ SNS notification published for order: " + order.getOrderID());
+        return dispatcher.enqueue(order.getOrderID(), "New Order Created", message);
     }
 }
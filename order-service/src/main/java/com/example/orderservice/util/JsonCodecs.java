@@ -0,0 +1,46 @@
+package com.example.orderservice.util;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.ProductItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.util.List;
+
+/**
+ * Pre-built Jackson readers and writers for the types parsed on hot paths.
+ *
+ * ObjectReader/ObjectWriter are immutable and thread-safe, and resolve their
+ * (de)serializers once, so sharing them avoids per-call type resolution. They live
+ * in static fields because the DynamoDB attribute converters are instantiated by
+ * the enhanced client rather than by Spring.
+ */
+public final class JsonCodecs {
+
+    public static final ObjectMapper MAPPER = configure(JsonMapper.builder().build());
+
+    public static final ObjectReader PRODUCT_ITEMS_READER =
+            MAPPER.readerFor(new TypeReference<List<ProductItem>>() {});
+    public static final ObjectWriter PRODUCT_ITEMS_WRITER =
+            MAPPER.writerFor(new TypeReference<List<ProductItem>>() {});
+    public static final ObjectReader ORDER_READER = MAPPER.readerFor(Order.class);
+    public static final ObjectWriter ORDER_WRITER = MAPPER.writerFor(Order.class);
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * Settings shared with the Spring-managed ObjectMapper, which JacksonConfig applies
+     * them to.
+     */
+    public static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper
+                .registerModule(new BlackbirdModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one in every {@code rate} debug events of a per-request log site,
+ * so DEBUG can be switched on under load without logging every request.
+ */
+public final class LogSampler {
+
+    private final Logger logger;
+    private final long rate;
+    private final AtomicLong counter = new AtomicLong();
+
+    public LogSampler(Logger logger, long rate) {
+        this.logger = logger;
+        this.rate = Math.max(1, rate);
+    }
+
+    /**
+     * True when debug is enabled and this event is one of the sampled ones. The
+     * counter is only touched when debug is on, so the disabled case is one check.
+     */
+    public boolean shouldLogDebug() {
+        return logger.isDebugEnabled() && (rate == 1 || counter.getAndIncrement() % rate == 0);
+    }
+}
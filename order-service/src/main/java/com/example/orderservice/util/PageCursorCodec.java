@@ -0,0 +1,52 @@
+package com.example.orderservice.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns a DynamoDB LastEvaluatedKey into an opaque, URL-safe cursor and back.
+ * Only string key attributes are supported, which covers every table in this service.
+ */
+public final class PageCursorCodec {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private PageCursorCodec() {
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        StringBuilder raw = new StringBuilder();
+        lastEvaluatedKey.forEach((name, value) -> {
+            if (value.s() == null) {
+                throw new IllegalArgumentException("Unsupported key attribute type for " + name);
+            }
+            raw.append(name).append(SEPARATOR).append(value.s()).append(SEPARATOR);
+        });
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        // A well-formed cursor is name/value pairs followed by a trailing separator
+        if (parts.length < 3 || parts.length % 2 == 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < parts.length; i += 2) {
+            key.put(parts[i], AttributeValue.fromS(parts[i + 1]));
+        }
+        return key;
+    }
+}
@@ -5,18 +5,57 @@ import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
 import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
 import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Stores {@code Order.items} either as a JSON string (the original format) or as a
+ * native DynamoDB list of maps ({@code L} of {@code M} with productId, quantity and
+ * unitPrice), which needs no string parsing and can be used in projection and
+ * filter expressions.
+ *
+ * Reads always accept both formats, so tables holding a mix of old and new items
+ * work. The write format is {@code orders.items.storage-format}; switch it to
+ * {@code list} only once every running instance can read lists.
+ */
 public class ProductItemListConverter implements AttributeConverter<List<ProductItem>> {
-    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public enum StorageFormat { JSON, LIST }
+
+    static final String PRODUCT_ID = "productId";
+    static final String QUANTITY = "quantity";
+    static final String UNIT_PRICE = "unitPrice";
+
+    // The enhanced client creates converter instances itself, so the format is static. It is
+    // set once at startup by OrderItemStorageConfig, which DynamoDbOrderRepository depends on;
+    // until then writes use JSON, the format every instance can read.
+    private static volatile StorageFormat writeFormat = StorageFormat.JSON;
+
+    public static void setWriteFormat(StorageFormat format) {
+        writeFormat = format;
+    }
+
+    public static StorageFormat getWriteFormat() {
+        return writeFormat;
+    }
 
     @Override
     public AttributeValue transformFrom(List<ProductItem> input) {
+        if (writeFormat == StorageFormat.LIST) {
+            List<AttributeValue> list = new ArrayList<>(input.size());
+            for (ProductItem item : input) {
+                list.add(AttributeValue.fromM(Map.of(
+                        PRODUCT_ID, item.getProductId() != null ? AttributeValue.fromS(item.getProductId())
+                                : AttributeValue.fromNul(true),
+                        QUANTITY, AttributeValue.fromN(Integer.toString(item.getQuantity())),
+                        UNIT_PRICE, AttributeValue.fromN(Double.toString(item.getUnitPrice())))));
+            }
+            return AttributeValue.fromL(list);
+        }
         try {
-            return AttributeValue.fromS(mapper.writeValueAsString(input));
+            return AttributeValue.fromS(JsonCodecs.PRODUCT_ITEMS_WRITER.writeValueAsString(input));
         } catch (Exception e) {
             throw new RuntimeException("Failed to serialize items", e);
         }
@@ -24,16 +63,40 @@ public class ProductItemListConverter implements AttributeConverter<List<Product
 
     @Override
     public List<ProductItem> transformTo(AttributeValue input) {
+        if (input.hasL()) {
+            return fromList(input.l());
+        }
+        if (input.s() == null) {
+            return null;
+        }
         try {
-            return mapper.readValue(input.s(), new TypeReference<List<ProductItem>>() {});
+            return JsonCodecs.PRODUCT_ITEMS_READER.readValue(input.s());
         } catch (Exception e) {
             throw new RuntimeException("Failed to deserialize items", e);
         }
     }
 
+    /**
+     * Decodes the native list format. Public so low-level (projected) scans can reuse it.
+     */
+    public static List<ProductItem> fromList(List<AttributeValue> list) {
+        List<ProductItem> items = new ArrayList<>(list.size());
+        for (AttributeValue value : list) {
+            Map<String, AttributeValue> m = value.m();
+            AttributeValue productId = m.get(PRODUCT_ID);
+            AttributeValue quantity = m.get(QUANTITY);
+            AttributeValue unitPrice = m.get(UNIT_PRICE);
+            items.add(new ProductItem(
+                    productId != null ? productId.s() : null,
+                    quantity != null && quantity.n() != null ? Integer.parseInt(quantity.n()) : 0,
+                    unitPrice != null && unitPrice.n() != null ? Double.parseDouble(unitPrice.n()) : 0));
+        }
+        return items;
+    }
+
     @Override
     public AttributeValueType attributeValueType() {
-        return AttributeValueType.S;
+        return writeFormat == StorageFormat.LIST ? AttributeValueType.L : AttributeValueType.S;
     }
 
     @Override
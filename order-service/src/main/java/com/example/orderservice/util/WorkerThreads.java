@@ -0,0 +1,41 @@
+package com.example.orderservice.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for the service's own background executors, so they follow the same
+ * platform/virtual choice as request handling ({@code spring.threads.virtual.enabled}).
+ *
+ * Work run on virtual threads must not block inside {@code synchronized}: that pins
+ * the carrier thread for the duration of the call. Guard blocking sections with a
+ * {@link java.util.concurrent.locks.ReentrantLock} instead.
+ */
+public final class WorkerThreads {
+
+    /** Property switching the servlet container, @Async, @Scheduled and these executors to virtual threads. */
+    public static final String VIRTUAL_THREADS_PROPERTY = "${spring.threads.virtual.enabled:false}";
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Named virtual threads, or named daemon platform threads.
+     */
+    public static ThreadFactory factory(String namePrefix, boolean virtual) {
+        return virtual
+                ? Thread.ofVirtual().name(namePrefix, 0).factory()
+                : Thread.ofPlatform().name(namePrefix, 0).daemon(true).factory();
+    }
+
+    /**
+     * A thread per task when virtual (callers bound concurrency themselves, e.g. with a
+     * semaphore), otherwise a fixed pool of {@code platformThreads}.
+     */
+    public static ExecutorService executor(String namePrefix, int platformThreads, boolean virtual) {
+        return virtual
+                ? Executors.newThreadPerTaskExecutor(factory(namePrefix, true))
+                : Executors.newFixedThreadPool(platformThreads, factory(namePrefix, false));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.orderservice;
+
+import com.example.orderservice.repository.AnalyticsRollupRepository;
+import com.example.orderservice.repository.InMemoryAnalyticsRollupRepository;
+import com.example.orderservice.repository.InMemoryOrderRepository;
+import com.example.orderservice.repository.InMemoryProductRepository;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("local")
+class LocalProfileApplicationTests {
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private AnalyticsRollupRepository rollupRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void usesInMemoryStorage() {
+		assertInstanceOf(InMemoryOrderRepository.class, orderRepository);
+		assertInstanceOf(InMemoryProductRepository.class, productRepository);
+		assertInstanceOf(InMemoryAnalyticsRollupRepository.class, rollupRepository);
+	}
+
+	@Test
+	void springObjectMapperSharesTheJsonCodecsSettings() {
+		assertTrue(objectMapper.getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+		assertFalse(objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+	}
+
+}
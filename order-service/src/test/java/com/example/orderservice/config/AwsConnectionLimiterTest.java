@@ -0,0 +1,99 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.support.LocalS3Server;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * More virtual threads than pooled connections: callers queue on the limiter and none
+ * of them pins its carrier waiting for a free connection. Without the limiter this
+ * deadlocks once the pinned waiters occupy every carrier, hence the timeout. (Brief
+ * pins on the pool's own lock remain; they last as long as a lease or release.)
+ */
+class AwsConnectionLimiterTest {
+
+    private LocalS3Server s3;
+    private S3Client s3Client;
+    private final AwsConnectionLimiter limiter = new AwsConnectionLimiter(2, Duration.ofSeconds(10));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = new LocalS3Server();
+        s3Client = S3Client.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .region(Region.AP_SOUTH_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(2))
+                .overrideConfiguration(c -> c.addExecutionInterceptor(limiter))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3.close();
+    }
+
+    @Test
+    @Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void callersWaitForAConnectionWithoutPinning() throws Exception {
+        byte[] body = new byte[64 * 1024];
+        List<RecordedEvent> waitingForConnection = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (awaitsCondition(event)) {
+                    waitingForConnection.add(event);
+                }
+            });
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> uploads = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    String key = "order-" + i + ".pdf";
+                    uploads.add(executor.submit(() -> s3Client.putObject(
+                            PutObjectRequest.builder().bucket("invoices").key(key).build(), RequestBody.fromBytes(body))));
+                }
+                for (Future<?> upload : uploads) {
+                    upload.get();
+                }
+            }
+            recording.stop();
+        }
+
+        assertTrue(waitingForConnection.isEmpty(), () -> waitingForConnection.size()
+                + " pinned waiting for a connection, first at " + waitingForConnection.get(0).getStackTrace());
+        assertEquals(32 * body.length, s3.bytesReceived());
+        assertEquals(2, limiter.availablePermits());
+    }
+
+    // The pool waits for a connection to be released on a Condition
+    private static boolean awaitsCondition(RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().endsWith("$ConditionObject")
+                        && frame.getMethod().getName().startsWith("await"));
+    }
+}
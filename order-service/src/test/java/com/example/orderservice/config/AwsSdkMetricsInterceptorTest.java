@@ -0,0 +1,70 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.support.LocalS3Server;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that SDK calls against a local S3 stand-in show up as one timer sample per
+ * call, tagged with the service, operation and outcome.
+ */
+class AwsSdkMetricsInterceptorTest {
+
+    private LocalS3Server s3;
+    private S3Client s3Client;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = new LocalS3Server();
+        s3Client = S3Client.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .region(Region.AP_SOUTH_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .overrideConfiguration(c -> c.addExecutionInterceptor(new AwsSdkMetricsInterceptor(registry)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3.close();
+    }
+
+    @Test
+    void successfulAndFailedCallsAreTimedSeparately() {
+        for (int i = 0; i < 3; i++) {
+            s3Client.putObject(PutObjectRequest.builder().bucket("invoices").key("order-" + i + ".pdf").build(),
+                    RequestBody.fromString("invoice " + i));
+        }
+        // The stand-in does not implement GetObject
+        assertThrows(Exception.class, () ->
+                s3Client.getObject(GetObjectRequest.builder().bucket("invoices").key("order-0.pdf").build()));
+
+        Timer puts = registry.find(AwsSdkMetricsInterceptor.METRIC)
+                .tags("service", "S3", "operation", "PutObject", "outcome", "success").timer();
+        assertNotNull(puts);
+        assertEquals(3, puts.count());
+        assertTrue(puts.totalTime(TimeUnit.NANOSECONDS) > 0);
+
+        Timer failedGets = registry.find(AwsSdkMetricsInterceptor.METRIC)
+                .tags("service", "S3", "operation", "GetObject", "outcome", "error").timer();
+        assertNotNull(failedGets);
+        assertEquals(1, failedGets.count());
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.BulkIngestResultDTO;
+import com.example.orderservice.dto.OrderPageDTO;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.Product;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.repository.OrderBatchWriter;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.security.JwtUtil;
+import com.example.orderservice.service.IdempotencyService;
+import com.example.orderservice.service.OrderCreationPipeline;
+import com.example.orderservice.service.OrderEventBroadcaster;
+import com.example.orderservice.service.ProductCatalog;
+import com.example.orderservice.service.S3Service;
+import com.example.orderservice.service.SnsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OrderController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderRepository orderRepository;
+    @MockBean
+    private S3Service s3Service;
+    @MockBean
+    private SnsService snsService;
+    @MockBean
+    private JwtUtil jwtUtil;
+    @MockBean
+    private OrderCreationPipeline creationPipeline;
+    @MockBean
+    private OrderBatchWriter batchWriter;
+    @MockBean
+    private ProductCatalog productCatalog;
+    @MockBean
+    private OrderEventBroadcaster eventBroadcaster;
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    // The MVC slice leaves out metrics auto-configuration, and JwtFilter registers timers
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllOrdersStreamsEveryPageAsOneArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<List<Order>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of(order("a"), order("b")));
+            consumer.accept(List.of(order("c")));
+            return null;
+        }).when(orderRepository).forEachPage(any(Consumer.class));
+
+        MvcResult started = mockMvc.perform(get("/api/orders"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].orderID").value("c"));
+    }
+
+    @Test
+    void pageReturnsItemsAndNextCursor() throws Exception {
+        when(orderRepository.findPage(2, "abc")).thenReturn(new OrderPageDTO(List.of(order("x")), "next"));
+
+        mockMvc.perform(get("/api/orders/page").param("limit", "2").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].orderID").value("x"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void pageRejectsMalformedCursorAndOversizedLimit() throws Exception {
+        when(orderRepository.findPage(50, "bogus")).thenThrow(new IllegalArgumentException("Malformed cursor"));
+
+        mockMvc.perform(get("/api/orders/page").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/page").param("limit", "10000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void asyncCreateStoresPendingOrderAndHandsOffToPipeline() throws Exception {
+        Path spooled = Path.of("/tmp/spooled-invoice");
+        when(creationPipeline.spool(any())).thenReturn(spooled);
+
+        when(orderRepository.saveOrderAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult started = mockMvc.perform(multipart("/api/orders")
+                        .file(new MockMultipartFile("invoice", "my invoice.pdf", "application/pdf", new byte[]{1, 2, 3}))
+                        .param("customerName", "Asha")
+                        .param("amount", "12.5")
+                        .param("items", "[{\"productId\":\"p1\",\"quantity\":1,\"unitPrice\":12.5}]")
+                        .param("async", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isAccepted());
+
+        verify(orderRepository).saveOrderAsync(argThat(o -> o.getStatus() == OrderStatus.PENDING && o.getInvoiceUrl() == null));
+        verify(creationPipeline).submit(any(Order.class), startsWith("invoices/"), eq(spooled), eq("application/pdf"));
+        verify(eventBroadcaster).orderCreated(argThat(o -> o.getStatus() == OrderStatus.PENDING));
+        verifyNoInteractions(s3Service, snsService);
+    }
+
+    @Test
+    void createUploadsInvoiceWhileTheOrderIsPrepared() throws Exception {
+        Path spooled = Path.of("/tmp/spooled-invoice");
+        when(creationPipeline.spool(any())).thenReturn(spooled);
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        when(s3Service.uploadFileAsync(startsWith("invoices/"), eq(spooled), eq("application/pdf"))).thenReturn(upload);
+        when(orderRepository.saveOrderAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult started = mockMvc.perform(multipart("/api/orders")
+                        .file(new MockMultipartFile("invoice", "invoice.pdf", "application/pdf", new byte[]{1, 2, 3}))
+                        .param("customerName", "Asha")
+                        .param("amount", "12.5")
+                        .param("items", "[{\"productId\":\"p1\",\"quantity\":1,\"unitPrice\":12.5}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The handler has returned with the upload still in flight; nothing is saved before it completes
+        verify(orderRepository, never()).saveOrderAsync(any());
+
+        upload.complete("https://example.com/presigned");
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+
+        verify(orderRepository).saveOrderAsync(argThat(o -> o.getStatus() == OrderStatus.COMPLETED
+                && o.getInvoiceUrl().startsWith("invoices/") && o.getItems().size() == 1));
+        verify(snsService).publishOrderNotification(any(Order.class));
+        verify(creationPipeline).discard(spooled);
+        verify(orderRepository, never()).saveOrder(any());
+    }
+
+    @Test
+    void createCancelsTheUploadWhenTheOrderCannotBePrepared() throws Exception {
+        Path spooled = Path.of("/tmp/spooled-invoice");
+        when(creationPipeline.spool(any())).thenReturn(spooled);
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        when(s3Service.uploadFileAsync(any(), any(), any())).thenReturn(upload);
+
+        MvcResult started = mockMvc.perform(multipart("/api/orders")
+                        .file(new MockMultipartFile("invoice", "invoice.pdf", "application/pdf", new byte[]{1, 2, 3}))
+                        .param("customerName", "Asha")
+                        .param("amount", "12.5")
+                        .param("items", "not json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isInternalServerError());
+
+        assertTrue(upload.isCancelled());
+        verify(creationPipeline).discard(spooled);
+        verify(orderRepository, never()).saveOrderAsync(any());
+    }
+
+    @Test
+    void createWithIdempotencyKeyReplaysTheOriginalResponse() throws Exception {
+        String requestHash = IdempotencyService.requestHash("Asha", 12.5, "[]", null, "invoice.pdf", 3L);
+        when(idempotencyService.execute(eq("asha"), eq("retry-1"), eq(requestHash), any()))
+                .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok().header(IdempotencyService.REPLAYED_HEADER, "true").body("order-1")));
+
+        MvcResult started = mockMvc.perform(multipart("/api/orders")
+                        .file(new MockMultipartFile("invoice", "invoice.pdf", "application/pdf", new byte[]{1, 2, 3}))
+                        .param("customerName", "Asha")
+                        .param("amount", "12.5")
+                        .param("items", "[]")
+                        .header(IdempotencyService.HEADER, "retry-1")
+                        .principal(() -> "asha"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(content().string("order-1"));
+
+        verifyNoInteractions(creationPipeline, s3Service, orderRepository, snsService);
+    }
+
+    @Test
+    void statusReportsPendingOrders() throws Exception {
+        Order pending = order("p");
+        pending.setStatus(OrderStatus.PENDING);
+        when(orderRepository.getOrderAsync("p")).thenReturn(CompletableFuture.completedFuture(pending));
+
+        MvcResult started = mockMvc.perform(get("/api/orders/p/status"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void invoiceUrlsAreSignedInOneBatchForOrdersWithInvoices() throws Exception {
+        Order withInvoice = order("a");
+        withInvoice.setInvoiceUrl("invoices/a_invoice.pdf");
+        when(orderRepository.getOrdersAsync(List.of("a", "b", "missing")))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("a", withInvoice, "b", order("b"))));
+        when(s3Service.generatePresignedUrls(argThat(keys -> List.copyOf(keys).equals(List.of("invoices/a_invoice.pdf")))))
+                .thenReturn(Map.of("invoices/a_invoice.pdf", "https://example.com/a"));
+
+        MvcResult started = mockMvc.perform(get("/api/orders/invoice-urls").param("ids", "a,b,missing,a"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.a").value("https://example.com/a"));
+
+        verify(orderRepository, never()).getOrderAsync(any());
+        verify(s3Service, never()).generatePresignedUrl(any());
+    }
+
+    @Test
+    void rangeQueriesTheRepositoryAndRejectsOversizedWindows() throws Exception {
+        when(orderRepository.findOrdersBetween(Instant.parse("2024-05-01T00:00:00Z"), Instant.parse("2024-05-08T00:00:00Z")))
+                .thenReturn(List.of(order("r1")));
+
+        mockMvc.perform(get("/api/orders/range")
+                        .param("from", "2024-05-01T00:00:00Z")
+                        .param("to", "2024-05-08T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderID").value("r1"));
+        mockMvc.perform(get("/api/orders/range")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("to", "2024-05-08T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/range")
+                        .param("from", "2024-05-08T00:00:00Z")
+                        .param("to", "2024-05-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void detailsResolvesAllItemProductsInOneLookup() throws Exception {
+        Order order = order("d");
+        order.setItems(List.of(new ProductItem("p1", 2, 5.0), new ProductItem("gone", 1, 3.0)));
+        when(orderRepository.getOrder("d")).thenReturn(order);
+        Product pen = new Product();
+        pen.setProductId("p1");
+        pen.setName("Pen");
+        when(productCatalog.getProductsByIds(List.of("p1", "gone"))).thenReturn(Map.of("p1", pen));
+
+        mockMvc.perform(get("/api/orders/d/details"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Pen"))
+                .andExpect(jsonPath("$.items[0].lineTotal").value(10.0))
+                .andExpect(jsonPath("$.items[1].name").doesNotExist());
+        verify(productCatalog, times(1)).getProductsByIds(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkAcceptsJsonArrayAndNdjson() throws Exception {
+        List<Order> received = new ArrayList<>();
+        when(batchWriter.writeAll(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Order> orders = invocation.getArgument(0);
+            orders.forEachRemaining(received::add);
+            return new BulkIngestResultDTO();
+        });
+
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"orderID\":\"a\"},{\"customerName\":\"Ravi\"}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"orderID\":\"c\"}\n{\"orderID\":\"d\"}\n"))
+                .andExpect(status().isOk());
+
+        assertEquals(4, received.size());
+        assertEquals("a", received.get(0).getOrderID());
+        assertNotNull(received.get(1).getOrderID());
+        assertNotNull(received.get(1).getOrderDate());
+        assertEquals(OrderStatus.COMPLETED, received.get(1).getStatus());
+        assertEquals("d", received.get(3).getOrderID());
+    }
+
+    private static Order order(String id) {
+        Order order = new Order();
+        order.setOrderID(id);
+        return order;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.security.JwtUtil;
+import com.example.orderservice.service.OrderEventBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams order events over a real connection: a client that reads keeps receiving
+ * events while one that has stopped reading is disconnected, without holding up the
+ * publisher. There is a single sender thread, so the reading client only keeps up if
+ * the send blocked on the stalled socket is abandoned.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "orders.events.max-subscribers=2",
+        "orders.events.buffer-size=8",
+        "orders.events.senders=1",
+        "orders.events.send-timeout-ms=500"
+})
+@ActiveProfiles("local")
+class OrderEventStreamTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderEventBroadcaster broadcaster;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Socket stalled;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stalled != null) {
+            stalled.close();
+        }
+        // close() would wait for the open event stream
+        client.shutdownNow();
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWhileOthersKeepReceiving() throws Exception {
+        String token = jwtUtil.generateToken("gokul");
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpResponse<Stream<String>> response = client.send(eventsRequest(token), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        Thread reader = new Thread(() -> response.body().forEach(lines::add), "sse-test-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        // Subscribes and then never reads, with a small receive window so it backs up quickly
+        stalled = new Socket();
+        stalled.setReceiveBufferSize(4096);
+        stalled.connect(new InetSocketAddress("127.0.0.1", port));
+        OutputStream out = stalled.getOutputStream();
+        out.write(("GET /api/orders/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + "Authorization: Bearer " + token + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        awaitSubscribers(2);
+
+        // Over the limit
+        assertEquals(503, client.send(eventsRequest(token), HttpResponse.BodyHandlers.discarding()).statusCode());
+
+        broadcaster.orderCreated(order("first", "Alice"));
+        awaitLine(lines, "event:order-created");
+        awaitLine(lines, "event:counters");
+
+        // Publish in step with the reading client until the stalled one overflows
+        String bulky = "x".repeat(256 * 1024);
+        int published = 0;
+        while (broadcaster.stats().get("slowConsumersDropped") == 0) {
+            assertTrue(published < 500, "stalled subscriber was never dropped");
+            String id = "bulky-" + published++;
+            broadcaster.orderUpdated(order(id, bulky));
+            awaitLine(lines, id);
+        }
+
+        assertEquals(1L, broadcaster.stats().get("subscribers"));
+        // The send to the stalled socket is still blocked; another thread took over from it
+        assertEquals(1L, broadcaster.stats().get("stalledSenders"));
+        broadcaster.orderUpdated(order("after-drop", "Bob"));
+        awaitLine(lines, "after-drop");
+    }
+
+    private HttpRequest eventsRequest(String token) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/orders/events"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .build();
+    }
+
+    private void awaitSubscribers(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (broadcaster.stats().get("subscribers") != expected) {
+            assertTrue(System.nanoTime() < deadline, "expected " + expected + " subscribers");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitLine(BlockingQueue<String> lines, String fragment) throws InterruptedException {
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertNotNull(line, "no event containing " + fragment);
+            if (line.contains(fragment)) {
+                return;
+            }
+        }
+    }
+
+    private static Order order(String id, String customerName) {
+        Order order = new Order();
+        order.setOrderID(id);
+        order.setCustomerName(customerName);
+        order.setAmount(10.0);
+        order.setOrderDate(Instant.now().toString());
+        return order;
+    }
+}
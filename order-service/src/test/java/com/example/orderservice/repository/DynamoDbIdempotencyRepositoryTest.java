@@ -0,0 +1,75 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.IdempotencyRecord;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class DynamoDbIdempotencyRepositoryTest {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    private final DynamoDbIdempotencyRepository repository = new DynamoDbIdempotencyRepository(dynamoDbAsyncClient);
+    private final Instant now = Instant.now();
+
+    @Test
+    void claimSucceedsWhenTheConditionalPutDoes() {
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+        assertNull(repository.claim("k", "c1", "h1", now.plusSeconds(60), now.plusSeconds(3600)).join());
+        verify(dynamoDbAsyncClient).putItem(argThat((PutItemRequest request) ->
+                "h1".equals(request.item().get("requestHash").s())));
+    }
+
+    @Test
+    void failedClaimReturnsTheRecordInTheWay() {
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                ConditionalCheckFailedException.builder().item(Map.of(
+                        "idempotencyKey", AttributeValue.fromS("k"),
+                        "state", AttributeValue.fromS("COMPLETED"),
+                        "httpStatus", AttributeValue.fromN("202"),
+                        "body", AttributeValue.fromS("order-1"),
+                        "requestHash", AttributeValue.fromS("h1"))).build()));
+
+        assertEquals(new IdempotencyRecord(true, 202, "order-1", "h1"),
+                repository.claim("k", "c2", "h2", now.plusSeconds(60), now.plusSeconds(3600)).join());
+    }
+
+    // DynamoDB Local leaves the item out of the exception
+    @Test
+    void failedClaimWithoutTheItemReadsIt() {
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()));
+        when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                GetItemResponse.builder().item(Map.of(
+                        "idempotencyKey", AttributeValue.fromS("k"),
+                        "state", AttributeValue.fromS("IN_PROGRESS"),
+                        "requestHash", AttributeValue.fromS("h1"))).build()));
+
+        assertEquals(IdempotencyRecord.inProgress("h1"),
+                repository.claim("k", "c2", "h2", now.plusSeconds(60), now.plusSeconds(3600)).join());
+    }
+
+    @Test
+    void releaseIgnoresAClaimTakenOverSince() {
+        when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().build()));
+
+        assertDoesNotThrow(() -> repository.release("k", "c1").join());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderSalesRecord;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.QueryIterable;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDbOrderRepositoryTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final DynamoDbAsyncClient dynamoDbAsyncClient = mock(DynamoDbAsyncClient.class);
+    private final OrderCache orderCache = new OrderCache(1000, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    private final ParallelScanner scanner = new ParallelScanner(4, false);
+    private final DynamoDbOrderRepository repository = new DynamoDbOrderRepository(dynamoDbClient, dynamoDbAsyncClient, mock(OrderAnalyticsAggregator.class),
+            scanner, orderCache, 1);
+
+    // What the index holds, by day
+    private final Map<String, List<String>> ordersByDay = Map.of(
+            "2024-05-01", List.of("2024-05-01T23:59:59.500Z"),
+            "2024-05-02", List.of("2024-05-02T00:00:00Z", "2024-05-02T12:30:00.123Z"),
+            "2024-05-03", List.of("2024-05-03T09:59:59.999Z", "2024-05-03T10:00:00Z"));
+
+    @AfterEach
+    void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Test
+    void queriesEachDayOfTheWindowAndAppliesExactBounds() {
+        Set<String> queriedDays = ConcurrentHashMap.newKeySet();
+        when(dynamoDbClient.queryPaginator(any(QueryRequest.class)))
+                .thenAnswer(invocation -> new QueryIterable(dynamoDbClient, invocation.getArgument(0)));
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenAnswer(invocation -> {
+            QueryRequest request = invocation.getArgument(0);
+            assertEquals(Order.ORDER_DAY_INDEX, request.indexName());
+            String day = request.expressionAttributeValues().values().stream()
+                    .map(AttributeValue::s)
+                    .filter(v -> v.length() == 10)
+                    .findFirst().orElseThrow();
+            queriedDays.add(day);
+            List<Map<String, AttributeValue>> items = ordersByDay.getOrDefault(day, List.of()).stream()
+                    .map(date -> Map.of(
+                            "orderID", AttributeValue.fromS("o-" + date),
+                            "orderDate", AttributeValue.fromS(date),
+                            "orderDay", AttributeValue.fromS(day)))
+                    .toList();
+            return QueryResponse.builder().items(items).build();
+        });
+
+        List<Order> orders = repository.findOrdersBetween(
+                Instant.parse("2024-05-01T23:59:59Z"), Instant.parse("2024-05-03T10:00:00Z"));
+
+        assertEquals(Set.of("2024-05-01", "2024-05-02", "2024-05-03"), queriedDays);
+        assertEquals(List.of("2024-05-01T23:59:59.500Z", "2024-05-02T00:00:00Z",
+                        "2024-05-02T12:30:00.123Z", "2024-05-03T09:59:59.999Z"),
+                orders.stream().map(Order::getOrderDate).toList());
+    }
+
+    @Test
+    void batchLookupReadsMissesInChunksAndLeavesOutAFailedChunk() {
+        List<String> ids = IntStream.range(0, 150).mapToObj(i -> "o" + i).toList();
+        List<Integer> requestSizes = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+        Set<String> unknown = new HashSet<>();
+        when(dynamoDbAsyncClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            List<String> keys = invocation.<BatchGetItemRequest>getArgument(0).requestItems().get("orders").keys()
+                    .stream().map(key -> key.get("orderID").s()).toList();
+            requestSizes.add(keys.size());
+            if (keys.size() == 100) {
+                failed.addAll(keys);
+                return CompletableFuture.failedFuture(DynamoDbException.builder().message("boom").build());
+            }
+            // The first read of the other chunk leaves one key unprocessed, and one of its orders does not exist
+            List<String> read = new ArrayList<>(keys);
+            Map<String, KeysAndAttributes> unprocessed = Map.of();
+            if (keys.size() == 50) {
+                unprocessed = Map.of("orders", KeysAndAttributes.builder()
+                        .keys(Map.of("orderID", AttributeValue.fromS(read.remove(0)))).build());
+                unknown.add(read.remove(0));
+            }
+            return CompletableFuture.completedFuture(BatchGetItemResponse.builder()
+                    .responses(Map.of("orders", read.stream()
+                            .map(id -> Map.of("orderID", AttributeValue.fromS(id),
+                                    "orderDate", AttributeValue.fromS("2024-05-01T10:00:00Z")))
+                            .toList()))
+                    .unprocessedKeys(unprocessed)
+                    .build());
+        });
+        Order cached = new Order();
+        cached.setOrderID("cached");
+        orderCache.put(cached);
+
+        List<String> requested = new ArrayList<>(ids);
+        requested.add("cached");
+        Map<String, Order> orders = repository.getOrdersAsync(requested).join();
+
+        assertEquals(List.of(1, 50, 100), requestSizes.stream().sorted().toList());
+        Set<String> expected = new HashSet<>(requested);
+        expected.removeAll(failed);
+        expected.removeAll(unknown);
+        assertEquals(expected, orders.keySet());
+        assertEquals(49 + 1, orders.size());
+
+        // Read and unknown orders are cached now; the failed ones are asked for again
+        requestSizes.clear();
+        failed.clear();
+        assertEquals(expected, repository.getOrdersAsync(requested).join().keySet());
+        assertEquals(List.of(100), requestSizes);
+    }
+
+    @Test
+    void salesScanProjectsOnlyTheNeededAttributesAndDecodesBothItemFormats() {
+        List<ScanRequest> requests = new ArrayList<>();
+        when(dynamoDbClient.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamoDbClient, invocation.getArgument(0)));
+        when(dynamoDbClient.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return ScanResponse.builder().items(
+                    Map.of("orderID", AttributeValue.fromS("json"),
+                            "orderDate", AttributeValue.fromS("2024-05-01T10:00:00Z"),
+                            "items", AttributeValue.fromS("[{\"productId\":\"p1\",\"quantity\":2,\"unitPrice\":5.0}]")),
+                    Map.of("orderID", AttributeValue.fromS("list"),
+                            "orderDate", AttributeValue.fromS("2024-05-02T10:00:00Z"),
+                            "items", AttributeValue.fromL(List.of(AttributeValue.fromM(Map.of(
+                                    "productId", AttributeValue.fromS("p2"),
+                                    "quantity", AttributeValue.fromN("3"),
+                                    "unitPrice", AttributeValue.fromN("1.5")))))),
+                    Map.of("orderID", AttributeValue.fromS("no-items"))).build();
+        });
+
+        List<OrderSalesRecord> records = repository.aggregateOrderSales(1, ArrayList::new, List::add, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+
+        assertEquals("orderID, orderDate, #items", requests.get(0).projectionExpression());
+        assertEquals(3, records.size());
+        assertEquals("p1", records.get(0).items().get(0).getProductId());
+        assertEquals(3, records.get(1).items().get(0).getQuantity());
+        assertEquals("2024-05-02T10:00:00Z", records.get(1).orderDate());
+        assertNull(records.get(2).items());
+    }
+
+    @Test
+    void derivesOrderDayFromOrderDate() {
+        Order order = new Order();
+        order.setOrderDate("2024-05-02T12:30:00Z");
+
+        assertEquals("2024-05-02", order.getOrderDay());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Product;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDbProductRepositoryTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final DynamoDbProductRepository repository =
+            new DynamoDbProductRepository(dynamoDbClient, mock(DynamoDbAsyncClient.class), mock(ParallelScanner.class), 1, 3, 1);
+
+    @Test
+    void batchesDistinctKeysAndRetriesUnprocessedOnes() {
+        List<Integer> requestSizes = new ArrayList<>();
+        AtomicBoolean throttledOnce = new AtomicBoolean();
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            List<Map<String, AttributeValue>> keys = request.requestItems().get("Products").keys();
+            requestSizes.add(keys.size());
+            List<Map<String, AttributeValue>> served = keys;
+            Map<String, KeysAndAttributes> unprocessed = Map.of();
+            // Leave the last five keys of the first full request unprocessed once
+            if (keys.size() == 100 && throttledOnce.compareAndSet(false, true)) {
+                served = keys.subList(0, 95);
+                unprocessed = Map.of("Products", KeysAndAttributes.builder().keys(keys.subList(95, 100)).build());
+            }
+            return BatchGetItemResponse.builder()
+                    .responses(Map.of("Products", served.stream().map(DynamoDbProductRepositoryTest::item).toList()))
+                    .unprocessedKeys(unprocessed)
+                    .build();
+        });
+
+        List<String> ids = new ArrayList<>(IntStream.range(0, 150).mapToObj(i -> "p" + i).toList());
+        ids.addAll(List.of("p1", "p2", "p3"));
+
+        Map<String, Product> products = repository.findByIds(ids);
+
+        assertEquals(150, products.size());
+        assertEquals("Product p99", products.get("p99").getName());
+        assertEquals(List.of(100, 5, 50), requestSizes);
+    }
+
+    @Test
+    void failsWhenKeysStayUnprocessed() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            return BatchGetItemResponse.builder()
+                    .responses(Map.of())
+                    .unprocessedKeys(request.requestItems())
+                    .build();
+        });
+
+        assertThrows(IllegalStateException.class, () -> repository.findByIds(List.of("p1")));
+        verify(dynamoDbClient, times(3)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    private static Map<String, AttributeValue> item(Map<String, AttributeValue> key) {
+        String id = key.get("productId").s();
+        return Map.of("productId", AttributeValue.fromS(id), "name", AttributeValue.fromS("Product " + id));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.OrderPageDTO;
+import com.example.orderservice.model.AnalyticsRollup;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOrderRepositoryTest {
+
+    private final InMemoryAnalyticsRollupRepository rollups = new InMemoryAnalyticsRollupRepository();
+    private final OrderAnalyticsAggregator aggregator = new OrderAnalyticsAggregator(rollups);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void pagesRangesAndCopiesOrders() {
+        InMemoryOrderRepository repository = new InMemoryOrderRepository(aggregator, "");
+        repository.saveOrder(order("o1", "2024-05-01T23:59:59.500Z", 2));
+        repository.saveOrder(order("o2", "2024-05-02T00:00:00Z", 1));
+        repository.saveOrder(order("o3", "2024-05-02T12:30:00.123Z", 3));
+        repository.saveOrder(order("o4", "2024-05-03T10:00:00Z", 1));
+
+        // Modifying what was read must not touch the stored order
+        repository.getOrder("o1").setStatus(OrderStatus.FAILED);
+        assertEquals(OrderStatus.PENDING, repository.getOrder("o1").getStatus());
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPageDTO page = repository.findPage(3, cursor);
+            page.getItems().forEach(o -> paged.add(o.getOrderID()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of("o1", "o2", "o3", "o4"), paged);
+
+        List<Order> window = repository.findOrdersBetween(
+                Instant.parse("2024-05-02T00:00:00Z"), Instant.parse("2024-05-03T10:00:00Z"));
+        assertEquals(List.of("o2", "o3"), window.stream().map(Order::getOrderID).toList());
+
+        // Moving an order in time moves it in the index too
+        Order moved = repository.getOrder("o4");
+        moved.setOrderDate("2024-05-02T06:00:00Z");
+        repository.saveOrder(moved);
+        window = repository.findOrdersBetween(
+                Instant.parse("2024-05-02T00:00:00Z"), Instant.parse("2024-05-03T00:00:00Z"));
+        assertEquals(List.of("o2", "o4", "o3"), window.stream().map(Order::getOrderID).toList());
+
+        assertEquals(4, rollups.get(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID).orElseThrow().getOrderCount());
+        assertEquals(7, rollups.get(AnalyticsRollup.TYPE_PRODUCT, "p1").orElseThrow().getQuantity());
+        assertEquals(3, rollups.get(AnalyticsRollup.TYPE_DAY, "2024-05-02").orElseThrow().getOrderCount());
+    }
+
+    @Test
+    void replaysTheLogAndRebuildsRollupsOnRestart() throws Exception {
+        InMemoryOrderRepository first = new InMemoryOrderRepository(aggregator, dataDir.toString());
+        first.saveOrder(order("o1", "2024-05-01T10:00:00Z", 2));
+        first.saveOrder(order("o2", "2024-05-02T10:00:00Z", 1));
+        Order updated = first.getOrder("o1");
+        updated.setStatus(OrderStatus.COMPLETED);
+        first.saveOrder(updated);
+        first.putBatch(List.of(order("o3", "2024-05-02T11:00:00Z", 4)));
+        first.close();
+        assertEquals(4, Files.readAllLines(dataDir.resolve("orders.jsonl")).size());
+
+        InMemoryAnalyticsRollupRepository freshRollups = new InMemoryAnalyticsRollupRepository();
+        InMemoryOrderRepository second = new InMemoryOrderRepository(
+                new OrderAnalyticsAggregator(freshRollups), dataDir.toString());
+
+        assertEquals(3, second.listOrders().size());
+        assertEquals(OrderStatus.COMPLETED, second.getOrder("o1").getStatus());
+        assertEquals(4, second.getOrder("o3").getItems().get(0).getQuantity());
+        // Compacted to one line per order
+        assertEquals(3, Files.readAllLines(dataDir.resolve("orders.jsonl")).size());
+        assertEquals(3, freshRollups.get(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID).orElseThrow().getOrderCount());
+        assertEquals(7, freshRollups.get(AnalyticsRollup.TYPE_PRODUCT, "p1").orElseThrow().getQuantity());
+        second.close();
+    }
+
+    private static Order order(String id, String orderDate, int quantity) {
+        Order order = new Order();
+        order.setOrderID(id);
+        order.setCustomerName("customer");
+        order.setOrderDate(orderDate);
+        order.setItems(List.of(new ProductItem("p1", quantity, 10.0)));
+        order.setAmount(quantity * 10.0);
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+}
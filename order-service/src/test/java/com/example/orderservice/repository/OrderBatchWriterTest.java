@@ -0,0 +1,249 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.BulkIngestResultDTO;
+import com.example.orderservice.model.AnalyticsRollup;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.service.OrderAnalyticsAggregator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderBatchWriterTest {
+
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final OrderAnalyticsAggregator aggregator = mock(OrderAnalyticsAggregator.class);
+    private final OrderCache cache = new OrderCache(1000, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    private final OrderBatchWriter writer = new OrderBatchWriter(
+            new DynamoDbOrderRepository(dynamoDbClient, mock(DynamoDbAsyncClient.class), aggregator, mock(ParallelScanner.class), cache, 1),
+            aggregator, cache, 2, 5, 1, false);
+
+    @BeforeEach
+    void noStoredOrders() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder().responses(Map.of()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void splitsIntoBatchesOf25AndRetriesUnprocessedItems() {
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicBoolean throttledOnce = new AtomicBoolean();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            List<WriteRequest> writes = request.requestItems().get("orders");
+            synchronized (batchSizes) {
+                batchSizes.add(writes.size());
+            }
+            // Throttle the last two items of the first full batch once
+            if (writes.size() == 25 && throttledOnce.compareAndSet(false, true)) {
+                return BatchWriteItemResponse.builder()
+                        .unprocessedItems(Map.of("orders", writes.subList(23, 25)))
+                        .build();
+            }
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build();
+        });
+
+        BulkIngestResultDTO result = writer.writeAll(orders(60).iterator());
+
+        assertEquals(60, result.getOrdersWritten());
+        assertEquals(0, result.getOrdersFailed());
+        assertEquals(3, result.getBatches().size());
+        assertTrue(batchSizes.contains(2), "unprocessed items were retried on their own");
+        assertEquals(1, result.getBatches().stream().filter(b -> b.getAttempts() == 2).count());
+        verify(aggregator, times(3)).onOrdersWritten(anyCollection(), eq(Map.of()));
+        assertNotNull(cache.get("order-59", id -> fail("written orders should be cached")));
+    }
+
+    @Test
+    void reportsItemsStillUnprocessedAfterLastAttempt() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            return BatchWriteItemResponse.builder().unprocessedItems(request.requestItems()).build();
+        });
+
+        BulkIngestResultDTO result = writer.writeAll(orders(3).iterator());
+
+        assertEquals(0, result.getOrdersWritten());
+        assertEquals(3, result.getOrdersFailed());
+        assertEquals(5, result.getBatches().get(0).getAttempts());
+    }
+
+    @Test
+    void writesTheOrdersReadBeforeMalformedInput() {
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            request.requestItems().get("orders")
+                    .forEach(write -> stored.add(write.putRequest().item().get("orderID").s()));
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build();
+        });
+        Iterator<Order> valid = orders(40).iterator();
+        // The record at position 30 does not parse
+        Iterator<Order> input = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return valid.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                if (read++ == 30) {
+                    throw new IllegalArgumentException("Unexpected character at record 30");
+                }
+                return valid.next();
+            }
+        };
+
+        BulkIngestResultDTO result = writer.writeAll(input);
+
+        assertEquals("Unexpected character at record 30", result.getError());
+        assertEquals(30, result.getOrdersWritten());
+        assertEquals(2, result.getBatches().size());
+        assertEquals(30, stored.size());
+        assertTrue(stored.containsAll(List.of("order-25", "order-26", "order-27", "order-28", "order-29")));
+    }
+
+    @Test
+    void doesNotRetryARejectedBatch() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(DynamoDbException.builder()
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode("ValidationException")
+                        .errorMessage("Provided list of item keys contains duplicates")
+                        .build())
+                .build());
+
+        BulkIngestResultDTO result = writer.writeAll(orders(3).iterator());
+
+        assertEquals(0, result.getOrdersWritten());
+        assertEquals(3, result.getOrdersFailed());
+        assertEquals(1, result.getBatches().get(0).getAttempts());
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void retriesThrottledRequests() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(DynamoDbException.builder()
+                        .statusCode(400)
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("ProvisionedThroughputExceededException").build())
+                        .build())
+                .thenReturn(BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build());
+
+        BulkIngestResultDTO result = writer.writeAll(orders(3).iterator());
+
+        assertEquals(3, result.getOrdersWritten());
+        assertEquals(2, result.getBatches().get(0).getAttempts());
+    }
+
+    @Test
+    void passesTheStoredVersionsToTheRollups() {
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenAnswer(invocation -> {
+            BatchGetItemRequest request = invocation.getArgument(0);
+            assertTrue(request.requestItems().get("orders").consistentRead());
+            return BatchGetItemResponse.builder().responses(Map.of("orders", List.of(Map.of(
+                    "orderID", AttributeValue.fromS("order-1"),
+                    "orderDate", AttributeValue.fromS("2024-04-30T10:00:00Z"))))).build();
+        });
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build());
+
+        writer.writeAll(orders(3).iterator());
+
+        verify(aggregator).onOrdersWritten(argThat(orders -> orders.size() == 3), argThat(previous ->
+                previous.keySet().equals(Set.of("order-1"))
+                        && "2024-04-30T10:00:00Z".equals(previous.get("order-1").getOrderDate())));
+    }
+
+    @Test
+    void writesAnOrderRepeatedInABatchOnce() {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest request = invocation.getArgument(0);
+            batchSizes.add(request.requestItems().get("orders").size());
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build();
+        });
+        List<Order> input = new ArrayList<>(orders(3));
+        input.add(orders(3).get(1));
+
+        BulkIngestResultDTO result = writer.writeAll(input.iterator());
+
+        assertEquals(List.of(3), batchSizes);
+        assertEquals(3, result.getOrdersWritten());
+        assertEquals(0, result.getOrdersFailed());
+    }
+
+    @Test
+    void ingestingTheSameOrdersAgainLeavesTheRollupsUnchanged() {
+        InMemoryAnalyticsRollupRepository rollups = new InMemoryAnalyticsRollupRepository();
+        OrderAnalyticsAggregator realAggregator = new OrderAnalyticsAggregator(rollups);
+        OrderBatchWriter inMemoryWriter = new OrderBatchWriter(new InMemoryOrderRepository(realAggregator, ""),
+                realAggregator, cache, 2, 5, 1, false);
+        List<Order> backlog = IntStream.range(0, 60).mapToObj(i -> {
+            Order order = orders(60).get(i);
+            order.setItems(List.of(new ProductItem("p" + i % 7, 2, 5.0)));
+            return order;
+        }).toList();
+        try {
+            inMemoryWriter.writeAll(backlog.iterator());
+            List<String> before = snapshot(rollups);
+            assertEquals(60L, rollups.get(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID).orElseThrow().getOrderCount());
+
+            inMemoryWriter.writeAll(backlog.iterator());
+
+            assertEquals(before, snapshot(rollups));
+        } finally {
+            inMemoryWriter.shutdown();
+        }
+    }
+
+    private static List<String> snapshot(InMemoryAnalyticsRollupRepository rollups) {
+        List<String> all = new ArrayList<>();
+        for (String type : List.of(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TYPE_DAY, AnalyticsRollup.TYPE_PRODUCT)) {
+            rollups.findByType(type).forEach(r -> all.add(String.join("/", type, r.getRollupId(),
+                    String.valueOf(r.getOrderCount()), String.valueOf(r.getDistinctProducts()),
+                    String.valueOf(r.getQuantity()), String.valueOf(r.getRevenue()))));
+        }
+        return all;
+    }
+
+    private static List<Order> orders(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Order order = new Order();
+            order.setOrderID("order-" + i);
+            order.setOrderDate("2024-05-01T10:00:00Z");
+            return order;
+        }).toList();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCacheTest {
+
+    private final OrderCache cache = new OrderCache(100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+    @Test
+    void loadsOnceThenServesFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Order first = cache.get("o1", id -> {
+            loads.incrementAndGet();
+            return order(id);
+        });
+        Order second = cache.get("o1", id -> {
+            loads.incrementAndGet();
+            return order(id);
+        });
+
+        assertEquals(first.getOrderID(), second.getOrderID());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void cachesMissesAndReplacesThemOnWrite() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("o2", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("o2", id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+
+        Order saved = order("o2");
+        cache.put(saved);
+        assertEquals("o2", cache.get("o2", id -> fail("should not reload")).getOrderID());
+    }
+
+    @Test
+    void readersDoNotSeeUnsavedChanges() {
+        Order saved = order("o5");
+        saved.setStatus(OrderStatus.PENDING);
+        cache.put(saved);
+
+        saved.setStatus(OrderStatus.COMPLETED);
+        Order read = cache.get("o5", id -> fail("should not reload"));
+        assertEquals(OrderStatus.PENDING, read.getStatus());
+
+        read.setInvoiceUrl("https://example.com/unsaved.pdf");
+        assertNull(cache.getAsync("o5", id -> fail("should not reload")).join().getInvoiceUrl());
+    }
+
+    @Test
+    void asyncLookupsShareOneLoadAndDropFailures() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Order> pending = new CompletableFuture<>();
+
+        CompletableFuture<Order> first = cache.getAsync("o3", id -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Order> second = cache.getAsync("o3", id -> fail("should share the first load"));
+        assertFalse(first.isDone());
+        pending.complete(order("o3"));
+        assertEquals("o3", second.join().getOrderID());
+        assertNotSame(first.join(), second.join());
+        assertEquals(1, loads.get());
+
+        CompletableFuture<Order> failed = cache.getAsync("o4",
+                id -> CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals("o4", cache.getAsync("o4", id -> CompletableFuture.completedFuture(order(id))).join().getOrderID());
+    }
+
+    // Guards against pinning: the loader blocks, and must not do so inside the cache's lock
+    @Test
+    void concurrentMissesShareOneLoadWithoutPinningVirtualThreads() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(10)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 8; i++) {
+                    executor.submit(() -> cache.get("o3", id -> {
+                        loads.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return order(id);
+                    }));
+                }
+            }
+            recording.stop();
+        }
+
+        assertEquals(1, loads.get());
+        assertTrue(pinned.isEmpty(), () -> "pinned at " + pinned.get(0).getStackTrace());
+    }
+
+    private static Order order(String id) {
+        Order order = new Order();
+        order.setOrderID(id);
+        return order;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.orderservice.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelScannerTest {
+
+    private final ParallelScanner scanner = new ParallelScanner(4, false);
+
+    @AfterEach
+    void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesEverySegmentOnWorkerThreads() {
+        DynamoDbTable<String> table = mock(DynamoDbTable.class);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(table.scan(any(ScanEnhancedRequest.class))).thenAnswer(invocation -> {
+            ScanEnhancedRequest request = invocation.getArgument(0);
+            assertEquals(4, request.totalSegments());
+            threads.add(Thread.currentThread().getName());
+            int segment = request.segment();
+            return PageIterable.create(() -> List.of(
+                    page("s" + segment + "-a", "s" + segment + "-b"),
+                    page("s" + segment + "-c")).iterator());
+        });
+
+        List<String> items = scanner.scanAll(table, 4);
+
+        assertEquals(12, items.size());
+        assertEquals(Set.of("s0", "s1", "s2", "s3"),
+                items.stream().map(i -> i.substring(0, 2)).collect(Collectors.toSet()));
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("dynamodb-scan-")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void propagatesSegmentFailure() {
+        DynamoDbTable<String> table = mock(DynamoDbTable.class);
+        when(table.scan(any(ScanEnhancedRequest.class))).thenThrow(new IllegalStateException("throttled"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> scanner.scanAll(table, 3));
+        assertEquals("throttled", error.getMessage());
+    }
+
+    private static Page<String> page(String... items) {
+        return Page.builder(String.class).items(List.of(items)).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.orderservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(1000, Duration.ofMinutes(5));
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromTheCache() {
+        String token = jwtUtil.generateToken("alice");
+
+        assertEquals("alice", jwtUtil.validateAndGetUsername(token));
+        assertEquals("alice", jwtUtil.validateAndGetUsername(token));
+        assertTrue(jwtUtil.validateToken(token, "alice"));
+        assertFalse(jwtUtil.validateToken(token, "bob"));
+
+        assertEquals(1, jwtUtil.cacheStats().missCount());
+        assertEquals(3, jwtUtil.cacheStats().hitCount());
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() throws Exception {
+        String token = jwtUtil.generateToken("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertNull(jwtUtil.validateAndGetUsername(tampered));
+        assertNull(jwtUtil.validateAndGetUsername("not-a-jwt"));
+        assertNull(jwtUtil.validateAndGetUsername(jwtUtil.generateToken("alice", Duration.ofSeconds(-1))));
+
+        // A cached token stops being accepted once it expires. exp has whole-second
+        // precision, so the token expires on the next second boundary at least 200 ms away.
+        long now = System.currentTimeMillis();
+        long expiresAt = (now / 1000 + 1) * 1000;
+        if (expiresAt - now < 200) {
+            expiresAt += 1000;
+        }
+        String shortLived = jwtUtil.generateToken("alice", Duration.ofMillis(expiresAt - now));
+        assertEquals("alice", jwtUtil.validateAndGetUsername(shortLived));
+        Thread.sleep(expiresAt - System.currentTimeMillis() + 20);
+        assertNull(jwtUtil.validateAndGetUsername(shortLived));
+    }
+}
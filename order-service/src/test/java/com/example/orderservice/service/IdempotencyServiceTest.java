@@ -0,0 +1,159 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.repository.InMemoryIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+
+    private static final String USER = "asha";
+    private static final String REQUEST = IdempotencyService.requestHash("Asha", 12.5, "[]");
+
+    // Shared by both "instances", as the DynamoDB table would be
+    private final InMemoryIdempotencyRepository repository = new InMemoryIdempotencyRepository(1000);
+    private final IdempotencyService service = service(Duration.ofSeconds(5));
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void concurrentDuplicatesShareTheFirstAttempt() {
+        CompletableFuture<ResponseEntity<String>> pending = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<String>> first = service.execute(USER, "k1", REQUEST, counted(() -> pending));
+        CompletableFuture<ResponseEntity<String>> duplicate = service.execute(USER, "k1", REQUEST, counted(() -> pending));
+        assertFalse(duplicate.isDone());
+
+        pending.complete(ResponseEntity.ok("order-1"));
+        assertEquals("order-1", first.join().getBody());
+        assertNull(first.join().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("order-1", duplicate.join().getBody());
+        assertEquals("true", duplicate.join().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+
+        ResponseEntity<String> later = service.execute(USER, "k1", REQUEST, counted(() -> fail("should replay"))).join();
+        assertEquals("order-1", later.getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedAttemptsAreNotRemembered() {
+        assertEquals(500, service.execute(USER, "k2", REQUEST, counted(() -> CompletableFuture.completedFuture(
+                ResponseEntity.status(500).body("Error: S3 unavailable")))).join().getStatusCode().value());
+        assertThrows(Exception.class, () -> service.execute(USER, "k2", REQUEST, counted(() ->
+                CompletableFuture.failedFuture(new IllegalStateException("boom")))).join());
+
+        ResponseEntity<String> retried = service.execute(USER, "k2", REQUEST, counted(() -> CompletableFuture.completedFuture(
+                ResponseEntity.accepted().body("order-2")))).join();
+        assertEquals(202, retried.getStatusCode().value());
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void duplicateOnAnotherInstanceWaitsForTheFirst() throws Exception {
+        IdempotencyService otherInstance = service(Duration.ofSeconds(5));
+        CompletableFuture<ResponseEntity<String>> pending = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<String>> first = service.execute(USER, "k3", REQUEST, counted(() -> pending));
+        CompletableFuture<ResponseEntity<String>> duplicate = otherInstance.execute(USER, "k3", REQUEST, counted(() -> fail("should wait")));
+        // Several polls go by without an answer
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+
+        pending.complete(ResponseEntity.ok("order-3"));
+        assertEquals("order-3", first.join().getBody());
+        assertEquals("order-3", duplicate.orTimeout(5, TimeUnit.SECONDS).join().getBody());
+        assertEquals("true", duplicate.join().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void givesUpWithConflictWhileAnotherInstanceIsStillRunning() {
+        IdempotencyService otherInstance = service(Duration.ofMillis(100));
+        service.execute(USER, "k4", REQUEST, counted(CompletableFuture::new));
+
+        ResponseEntity<String> response = otherInstance.execute(USER, "k4", REQUEST, counted(() -> fail("should not run"))).join();
+
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void abandonedClaimIsTakenOver() {
+        // An instance claimed the key and died; its lease has run out
+        Instant now = Instant.now();
+        assertNull(repository.claim(IdempotencyService.scope(USER, "k5"), "crashed", REQUEST, now.minusSeconds(1), now.plusSeconds(60)).join());
+
+        ResponseEntity<String> response = service.execute(USER, "k5", REQUEST, counted(() ->
+                CompletableFuture.completedFuture(ResponseEntity.ok("order-5")))).join();
+
+        assertEquals("order-5", response.getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void sameKeyFromAnotherUserIsADifferentRequest() {
+        assertEquals("order-6", service.execute(USER, "k6", REQUEST, counted(() ->
+                CompletableFuture.completedFuture(ResponseEntity.ok("order-6")))).join().getBody());
+
+        ResponseEntity<String> other = service.execute("ravi", "k6", REQUEST, counted(() ->
+                CompletableFuture.completedFuture(ResponseEntity.ok("order-7")))).join();
+
+        assertEquals("order-7", other.getBody());
+        assertNull(other.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void sameKeyWithADifferentRequestIsRejected() {
+        String otherRequest = IdempotencyService.requestHash("Asha", 99.0, "[]");
+        assertEquals("order-8", service.execute(USER, "k8", REQUEST, counted(() ->
+                CompletableFuture.completedFuture(ResponseEntity.ok("order-8")))).join().getBody());
+
+        // Answered from this instance's cache and, on another instance, from the repository
+        assertEquals(422, service.execute(USER, "k8", otherRequest, counted(() -> fail("should not run")))
+                .join().getStatusCode().value());
+        assertEquals(422, service(Duration.ofSeconds(5)).execute(USER, "k8", otherRequest, counted(() -> fail("should not run")))
+                .join().getStatusCode().value());
+        // The original still replays
+        assertEquals("order-8", service.execute(USER, "k8", REQUEST, counted(() -> fail("should replay"))).join().getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void differentRequestDoesNotWaitForTheOneHoldingTheKey() {
+        IdempotencyService otherInstance = service(Duration.ofSeconds(5));
+        service.execute(USER, "k9", REQUEST, counted(CompletableFuture::new));
+
+        ResponseEntity<String> response = otherInstance.execute(USER, "k9", IdempotencyService.requestHash("Asha", 99.0, "[]"),
+                counted(() -> fail("should not run"))).orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertEquals(422, response.getStatusCode().value());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void requestHashCoversEveryParameterAndItsBoundaries() {
+        assertEquals(REQUEST, IdempotencyService.requestHash("Asha", 12.5, "[]"));
+        assertNotEquals(IdempotencyService.requestHash("ab", "c"), IdempotencyService.requestHash("a", "bc"));
+        assertNotEquals(IdempotencyService.requestHash("Asha", 12.5, "[]", null), REQUEST);
+    }
+
+    private IdempotencyService service(Duration waitTimeout) {
+        return new IdempotencyService(repository, 1000, Duration.ofHours(1), Duration.ofMinutes(3), waitTimeout, 10);
+    }
+
+    private Supplier<CompletableFuture<ResponseEntity<String>>> counted(Supplier<CompletableFuture<ResponseEntity<String>>> action) {
+        return () -> {
+            runs.incrementAndGet();
+            return action.get();
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private final SnsClient snsClient = mock(SnsClient.class);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void publishesInBatchesOfAtMostTenAndRetriesFailedEntries() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicBoolean failedOnce = new AtomicBoolean();
+        when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+            List<PublishBatchRequestEntry> entries = ((PublishBatchRequest) invocation.getArgument(0))
+                    .publishBatchRequestEntries();
+            synchronized (batchSizes) {
+                batchSizes.add(entries.size());
+            }
+            List<PublishBatchResultEntry> successful = new ArrayList<>();
+            List<BatchResultErrorEntry> failed = new ArrayList<>();
+            for (PublishBatchRequestEntry entry : entries) {
+                if (entry.id().equals("0") && failedOnce.compareAndSet(false, true)) {
+                    failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("Throttled").senderFault(false).build());
+                } else {
+                    successful.add(PublishBatchResultEntry.builder().id(entry.id()).build());
+                }
+            }
+            return PublishBatchResponse.builder().successful(successful).failed(failed).build();
+        });
+        dispatcher = new NotificationDispatcher(snsClient, registry, "arn:test", 1, 100, 50, 3, 1, false);
+
+        for (int i = 0; i < 25; i++) {
+            assertTrue(dispatcher.enqueue("o" + i, "New Order Created", "order " + i));
+        }
+        awaitPublished(25);
+
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10), batchSizes.toString());
+        assertEquals(1L, dispatcher.stats().get("retried"));
+        assertEquals(0L, dispatcher.stats().get("failed"));
+        assertEquals(1.0, registry.get("orders.notifications.retried").functionCounter().count());
+        assertEquals(25.0, registry.get("orders.notifications.published").functionCounter().count());
+    }
+
+    @Test
+    void dropsAndCountsNotificationsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<PublishBatchRequestEntry> entries = ((PublishBatchRequest) invocation.getArgument(0))
+                    .publishBatchRequestEntries();
+            return PublishBatchResponse.builder()
+                    .successful(entries.stream().map(e -> PublishBatchResultEntry.builder().id(e.id()).build()).toList())
+                    .build();
+        });
+        dispatcher = new NotificationDispatcher(snsClient, registry, "arn:test", 1, 2, 0, 3, 1, false);
+
+        // The worker takes the first message and blocks in PublishBatch; two more fill the queue
+        dispatcher.enqueue("o0", "s", "m");
+        verify(snsClient, timeout(2000)).publishBatch(any(PublishBatchRequest.class));
+        assertTrue(dispatcher.enqueue("o1", "s", "m"));
+        assertTrue(dispatcher.enqueue("o2", "s", "m"));
+
+        assertFalse(dispatcher.enqueue("o3", "s", "m"));
+        assertEquals(1L, dispatcher.stats().get("dropped"));
+        assertEquals(1.0, registry.get("orders.notifications.dropped").functionCounter().count());
+        assertEquals(2.0, registry.get("orders.notifications.queued").gauge().value());
+
+        release.countDown();
+        awaitPublished(3);
+    }
+
+    private void awaitPublished(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.stats().get("published") < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, dispatcher.stats().get("published"));
+    }
+}
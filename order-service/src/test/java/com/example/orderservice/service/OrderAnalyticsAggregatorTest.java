@@ -0,0 +1,115 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.AnalyticsRollup;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.repository.AnalyticsRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderAnalyticsAggregatorTest {
+
+    private AnalyticsRollupRepository rollups;
+    private OrderAnalyticsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        rollups = mock(AnalyticsRollupRepository.class);
+        aggregator = new OrderAnalyticsAggregator(rollups);
+    }
+
+    @Test
+    void newOrderIncrementsDayProductsAndTotals() {
+        when(rollups.increment(eq(AnalyticsRollup.TYPE_PRODUCT), anyString(), anyMap())).thenReturn(true);
+
+        aggregator.onOrderSaved(null, order("2024-05-01T10:00:00Z",
+                new ProductItem("p1", 2, 10.0), new ProductItem("p2", 1, 5.0)));
+
+        verify(rollups).increment(AnalyticsRollup.TYPE_DAY, "2024-05-01", Map.of("orderCount", 1L));
+        verify(rollups).increment(AnalyticsRollup.TYPE_PRODUCT, "p1", Map.of("quantity", 2L, "revenue", 20.0));
+        verify(rollups).increment(AnalyticsRollup.TYPE_PRODUCT, "p2", Map.of("quantity", 1L, "revenue", 5.0));
+        verify(rollups).increment(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID,
+                Map.of("orderCount", 1L, "distinctProducts", 2L));
+    }
+
+    @Test
+    void asyncSaveCountsNewProductsOnceTheirUpdatesComplete() {
+        CompletableFuture<Boolean> p1 = new CompletableFuture<>();
+        when(rollups.incrementAsync(eq(AnalyticsRollup.TYPE_DAY), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(rollups.incrementAsync(AnalyticsRollup.TYPE_PRODUCT, "p1", Map.of("quantity", 2L, "revenue", 20.0))).thenReturn(p1);
+        when(rollups.incrementAsync(AnalyticsRollup.TYPE_PRODUCT, "p2", Map.of("quantity", 1L, "revenue", 5.0)))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(rollups.incrementAsync(eq(AnalyticsRollup.TYPE_TOTAL), anyString(), anyMap()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletableFuture<Void> saved = aggregator.onOrderSavedAsync(null, order("2024-05-01T10:00:00Z",
+                new ProductItem("p1", 2, 10.0), new ProductItem("p2", 1, 5.0)));
+
+        verify(rollups, never()).incrementAsync(eq(AnalyticsRollup.TYPE_TOTAL), anyString(), anyMap());
+        assertFalse(saved.isDone());
+        p1.complete(true);
+        saved.join();
+        verify(rollups).incrementAsync(AnalyticsRollup.TYPE_DAY, "2024-05-01", Map.of("orderCount", 1L));
+        verify(rollups).incrementAsync(AnalyticsRollup.TYPE_TOTAL, AnalyticsRollup.TOTAL_ID,
+                Map.of("orderCount", 1L, "distinctProducts", 1L));
+        verify(rollups, never()).increment(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void resavingUnchangedOrderWritesNothing() {
+        Order before = order("2024-05-01T10:00:00Z", new ProductItem("p1", 2, 10.0));
+        Order after = order("2024-05-01T10:00:00Z", new ProductItem("p1", 2, 10.0));
+        after.setInvoiceUrl("invoices/new.pdf");
+
+        aggregator.onOrderSaved(before, after);
+
+        verifyNoInteractions(rollups);
+    }
+
+    @Test
+    void changedItemsApplyOnlyTheDifference() {
+        Order before = order("2024-05-01T10:00:00Z", new ProductItem("p1", 2, 10.0));
+        Order after = order("2024-05-01T10:00:00Z", new ProductItem("p1", 3, 10.0));
+
+        aggregator.onOrderSaved(before, after);
+
+        verify(rollups).increment(AnalyticsRollup.TYPE_PRODUCT, "p1", Map.of("quantity", 1L, "revenue", 10.0));
+        verifyNoMoreInteractions(rollups);
+    }
+
+    @Test
+    void rebuildWritesAbsoluteValuesAndDropsStaleRollups() {
+        AnalyticsRollup stale = new AnalyticsRollup();
+        stale.setRollupType(AnalyticsRollup.TYPE_PRODUCT);
+        stale.setRollupId("gone");
+        when(rollups.findByType(AnalyticsRollup.TYPE_PRODUCT)).thenReturn(List.of(stale));
+
+        long count = aggregator.rebuild(List.of(
+                order("2024-05-01T10:00:00Z", new ProductItem("p1", 1, 3.0)),
+                order("2024-05-02T10:00:00Z", new ProductItem("p1", 1, 3.0))));
+
+        assertEquals(2, count);
+        verify(rollups).put(argThat(r -> AnalyticsRollup.TYPE_TOTAL.equals(r.getRollupType())
+                && r.getOrderCount() == 2L && r.getDistinctProducts() == 1L));
+        verify(rollups).put(argThat(r -> "p1".equals(r.getRollupId()) && r.getQuantity() == 2L));
+        verify(rollups).delete(AnalyticsRollup.TYPE_PRODUCT, "gone");
+    }
+
+    private static Order order(String orderDate, ProductItem... items) {
+        Order order = new Order();
+        order.setOrderID("o-" + orderDate);
+        order.setOrderDate(orderDate);
+        order.setItems(List.of(items));
+        return order;
+    }
+}
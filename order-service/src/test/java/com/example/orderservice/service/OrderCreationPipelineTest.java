@@ -0,0 +1,94 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderCreationPipelineTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final S3Service s3Service = mock(S3Service.class);
+    private final SnsService snsService = mock(SnsService.class);
+    private final OrderEventBroadcaster eventBroadcaster = mock(OrderEventBroadcaster.class);
+
+    @Test
+    void retriesFailedStageThenCompletesAndNotifies() throws Exception {
+        OrderCreationPipeline pipeline = pipeline();
+        Path invoice = Files.createFile(spoolDir.resolve("invoice.upload"));
+        when(s3Service.uploadFile(anyString(), any(Path.class), any()))
+                .thenThrow(new IllegalStateException("slow down"))
+                .thenReturn("https://signed");
+        Order order = pendingOrder();
+
+        pipeline.submit(order, "invoices/o1_a.pdf", invoice, "application/pdf");
+        pipeline.shutdown();
+
+        verify(s3Service, times(2)).uploadFile("invoices/o1_a.pdf", invoice, "application/pdf");
+        verify(orderRepository).saveOrder(argThat(o -> o.getStatus() == OrderStatus.COMPLETED
+                && "invoices/o1_a.pdf".equals(o.getInvoiceUrl())));
+        verify(snsService).publishOrderNotification(argThat(o -> o.getStatus() == OrderStatus.COMPLETED));
+        verify(eventBroadcaster).orderUpdated(argThat(o -> o.getStatus() == OrderStatus.COMPLETED));
+        assertFalse(Files.exists(invoice));
+    }
+
+    @Test
+    void leavesTheSubmittedOrderUntouched() throws Exception {
+        OrderCreationPipeline pipeline = pipeline();
+        Path invoice = Files.createFile(spoolDir.resolve("invoice.upload"));
+        Order order = pendingOrder();
+        doAnswer(invocation -> {
+            // Persistence has not succeeded yet, so nothing the caller holds may say COMPLETED
+            assertEquals(OrderStatus.PENDING, order.getStatus());
+            assertNull(order.getInvoiceUrl());
+            throw new IllegalStateException("throttled");
+        }).when(orderRepository).saveOrder(argThat(o -> o.getStatus() == OrderStatus.COMPLETED));
+
+        pipeline.submit(order, "invoices/o1_a.pdf", invoice, "application/pdf");
+        pipeline.shutdown();
+
+        verify(orderRepository, times(3)).saveOrder(argThat(o -> o.getStatus() == OrderStatus.COMPLETED));
+        verify(orderRepository).saveOrder(argThat(o -> o.getStatus() == OrderStatus.FAILED && o.getInvoiceUrl() == null));
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        assertNull(order.getInvoiceUrl());
+    }
+
+    @Test
+    void marksOrderFailedWhenRetriesAreExhausted() throws Exception {
+        OrderCreationPipeline pipeline = pipeline();
+        Path invoice = Files.createFile(spoolDir.resolve("invoice.upload"));
+        when(s3Service.uploadFile(anyString(), any(Path.class), any())).thenThrow(new IllegalStateException("down"));
+        Order order = pendingOrder();
+
+        pipeline.submit(order, "invoices/o1_a.pdf", invoice, "application/pdf");
+        pipeline.shutdown();
+
+        verify(s3Service, times(3)).uploadFile(anyString(), any(Path.class), any());
+        verify(orderRepository).saveOrder(argThat(o -> o.getStatus() == OrderStatus.FAILED));
+        verifyNoInteractions(snsService);
+        verify(eventBroadcaster).orderUpdated(argThat(o -> o.getStatus() == OrderStatus.FAILED));
+        assertFalse(Files.exists(invoice));
+    }
+
+    private OrderCreationPipeline pipeline() {
+        return new OrderCreationPipeline(orderRepository, s3Service, snsService, eventBroadcaster, 1, 10, 3, 1, spoolDir.toString(), false);
+    }
+
+    private static Order pendingOrder() {
+        Order order = new Order();
+        order.setOrderID("o1");
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+}
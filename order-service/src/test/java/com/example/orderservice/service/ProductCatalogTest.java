@@ -0,0 +1,79 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductCatalogTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductCatalog catalog = new ProductCatalog(productService, new ObjectMapper());
+
+    @Test
+    void servesReadsFromSnapshotAfterRefresh() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(product("p1", "Pen")));
+
+        catalog.refresh();
+
+        assertEquals("Pen", catalog.getProductById("p1").orElseThrow().getName());
+        assertTrue(new String(catalog.getAllProductsJson()).contains("\"productId\":\"p1\""));
+        verify(productService, never()).getProductById(any());
+    }
+
+    @Test
+    void createPatchesTheSnapshotWithoutRescanning() {
+        when(productService.getAllProducts()).thenReturn(List.of(product("p1", "Pen")));
+        when(productService.createProduct(any())).thenAnswer(inv -> {
+            Product p = inv.getArgument(0);
+            p.setProductId("p2");
+            return p;
+        });
+        catalog.refresh();
+
+        catalog.createProduct(product(null, "Ink"));
+
+        assertEquals(2, catalog.getAllProducts().size());
+        assertEquals("Ink", catalog.getProductById("p2").orElseThrow().getName());
+        verify(productService, times(1)).getAllProducts();
+    }
+
+    @Test
+    void batchLookupOnlyFetchesProductsMissingFromTheSnapshot() {
+        when(productService.getAllProducts()).thenReturn(List.of(product("p1", "Pen")));
+        when(productService.getProductsByIds(any())).thenReturn(Map.of("p2", product("p2", "Ink")));
+        catalog.refresh();
+
+        Map<String, Product> products = catalog.getProductsByIds(List.of("p1", "p2", "p1"));
+
+        assertEquals(Set.of("p1", "p2"), products.keySet());
+        verify(productService).getProductsByIds(Set.of("p2"));
+    }
+
+    @Test
+    void keepsPreviousSnapshotWhenRefreshFails() {
+        when(productService.getAllProducts())
+                .thenReturn(List.of(product("p1", "Pen")))
+                .thenThrow(new IllegalStateException("throttled"));
+        catalog.refresh();
+
+        catalog.refresh();
+
+        assertEquals(Optional.of("Pen"), catalog.getProductById("p1").map(Product::getName));
+    }
+
+    private static Product product(String id, String name) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName(name);
+        return product;
+    }
+}
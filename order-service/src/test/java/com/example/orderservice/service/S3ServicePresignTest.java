@@ -0,0 +1,80 @@
+package com.example.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Presigning is local, so no S3 stand-in is needed; the s3.presign timer counts signatures.
+ */
+class S3ServicePresignTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final S3Presigner presigner = S3Presigner.builder()
+            .region(Region.AP_SOUTH_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        presigner.close();
+    }
+
+    @Test
+    void reusesUrlsUntilShortlyBeforeTheyExpire() throws Exception {
+        S3Service service = service(Duration.ofSeconds(2), Duration.ofMillis(1900));
+
+        String first = service.generatePresignedUrl("invoices/a.pdf");
+        assertEquals(first, service.generatePresignedUrl("invoices/a.pdf"));
+        assertEquals(1, signatures());
+
+        // Cached for 100 ms here, so the next call has to sign again
+        Thread.sleep(200);
+        assertTrue(service.generatePresignedUrl("invoices/a.pdf").contains("invoices/a.pdf"));
+        assertEquals(2, signatures());
+    }
+
+    @Test
+    void batchSignsOnlyTheMisses() {
+        S3Service service = service(Duration.ofMinutes(15), Duration.ofMinutes(1));
+        String cached = service.generatePresignedUrl("invoices/a.pdf");
+
+        Map<String, String> urls = service.generatePresignedUrls(
+                List.of("invoices/a.pdf", "invoices/b.pdf", "invoices/c.pdf", "invoices/b.pdf"));
+
+        assertEquals(3, urls.size());
+        assertEquals(cached, urls.get("invoices/a.pdf"));
+        assertTrue(urls.get("invoices/c.pdf").contains("invoices/c.pdf"));
+        assertEquals(3, signatures());
+        assertEquals(urls.get("invoices/b.pdf"), service.generatePresignedUrl("invoices/b.pdf"));
+        assertEquals(3, signatures());
+    }
+
+    @Test
+    void rejectsARefreshMarginLongerThanTheValidity() {
+        assertThrows(IllegalArgumentException.class, () -> service(Duration.ofMinutes(1), Duration.ofMinutes(1)));
+    }
+
+    private S3Service service(Duration validity, Duration refreshBeforeExpiry) {
+        return new S3Service(mock(S3Client.class), mock(S3AsyncClient.class), presigner, registry,
+                16L * 1024 * 1024, 8L * 1024 * 1024, validity, 100, refreshBeforeExpiry);
+    }
+
+    private long signatures() {
+        return registry.get("s3.presign").timer().count();
+    }
+}
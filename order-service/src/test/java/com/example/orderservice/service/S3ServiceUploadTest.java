@@ -0,0 +1,187 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.support.FileMultipartFile;
+import com.example.orderservice.support.LocalS3Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uploads invoices to a local S3 stand-in and checks that the bytes arrive intact
+ * without the file ever being read into a byte array: what the uploading thread
+ * allocates stays a small fraction of the file size.
+ */
+class S3ServiceUploadTest {
+
+    private static final String BUCKET = "order-invoice-gokul";
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private LocalS3Server s3;
+    private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
+    private S3Presigner presigner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3 = new LocalS3Server();
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+        // Over plain HTTP the SDK signs the payload in aws-chunked encoding, allocating every
+        // chunk afresh; S3 over HTTPS sends it unsigned and unchunked, which this mirrors
+        s3Client = S3Client.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .serviceConfiguration(c -> c.chunkedEncodingEnabled(false))
+                .region(Region.AP_SOUTH_1)
+                .credentialsProvider(credentials)
+                .build();
+        // Same multipart settings as AwsConfig's async client
+        s3AsyncClient = S3AsyncClient.builder()
+                .endpointOverride(s3.endpoint())
+                .forcePathStyle(true)
+                .region(Region.AP_SOUTH_1)
+                .credentialsProvider(credentials)
+                .multipartEnabled(true)
+                .multipartConfiguration(c -> c.thresholdInBytes(16 * MB).minimumPartSizeInBytes(8 * MB))
+                .build();
+        presigner = S3Presigner.builder()
+                .endpointOverride(s3.endpoint())
+                .region(Region.AP_SOUTH_1)
+                .credentialsProvider(credentials)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3AsyncClient.close();
+        presigner.close();
+        s3.close();
+    }
+
+    @Test
+    void smallFileIsStreamedWithSinglePut() throws Exception {
+        S3Service service = new S3Service(s3Client, s3AsyncClient, presigner, new SimpleMeterRegistry(), 16 * MB, 8 * MB,
+                Duration.ofMinutes(15), 100, Duration.ofMinutes(1));
+        Path file = randomFile("small.pdf", 4 * MB);
+
+        Result result = upload(service, "invoices/small.pdf", file);
+
+        LocalS3Server.StoredObject stored = s3.object(BUCKET, "invoices/small.pdf");
+        assertFalse(stored.multipart());
+        assertEquals(Files.size(file), stored.size());
+        assertEquals(md5(file), stored.md5());
+        assertEquals(0, result.partsSent());
+        assertAllocatedWellBelow(result, file);
+    }
+
+    @Test
+    void largeFileUsesMultipartUploadWithoutBufferingIt() throws Exception {
+        S3Service service = new S3Service(s3Client, s3AsyncClient, presigner, new SimpleMeterRegistry(), 16 * MB, 8 * MB,
+                Duration.ofMinutes(15), 100, Duration.ofMinutes(1));
+        Path file = randomFile("large.pdf", 40 * MB);
+
+        Result result = upload(service, "invoices/large.pdf", file);
+
+        LocalS3Server.StoredObject stored = s3.object(BUCKET, "invoices/large.pdf");
+        assertTrue(stored.multipart());
+        assertEquals(Files.size(file), stored.size());
+        assertEquals(5, result.partsSent());
+        assertAllocatedWellBelow(result, file);
+    }
+
+    @Test
+    void asyncUploadSendsLargeFileInParts() throws Exception {
+        S3Service service = new S3Service(s3Client, s3AsyncClient, presigner, new SimpleMeterRegistry(), 16 * MB, 8 * MB,
+                Duration.ofMinutes(15), 100, Duration.ofMinutes(1));
+        Path file = randomFile("async.pdf", 40 * MB);
+
+        String url = service.uploadFileAsync("invoices/async.pdf", file, "application/pdf").get(60, TimeUnit.SECONDS);
+
+        assertTrue(url.contains("invoices/async.pdf"));
+        LocalS3Server.StoredObject stored = s3.object(BUCKET, "invoices/async.pdf");
+        assertTrue(stored.multipart());
+        assertEquals(Files.size(file), stored.size());
+        assertEquals(5, s3.partsReceived());
+    }
+
+    private record Result(long allocatedBytes, int partsSent) {
+    }
+
+    private Result upload(S3Service service, String key, Path file) throws Exception {
+        warmUp(service);
+
+        // getBytes() would copy the whole invoice onto the heap, which is exactly what must not happen
+        FileMultipartFile multipartFile = new FileMultipartFile(file, file.getFileName().toString(), "application/pdf") {
+            @Override
+            public byte[] getBytes() {
+                throw new AssertionError("upload buffered the whole file");
+            }
+        };
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        int partsBefore = s3.partsReceived();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        String url = service.uploadFile(key, multipartFile);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertTrue(url.contains(key));
+        return new Result(allocated, s3.partsReceived() - partsBefore);
+    }
+
+    // Loads the SDK classes for both upload paths, so only the measured upload itself is counted
+    private void warmUp(S3Service service) throws Exception {
+        Path file = randomFile("warm-up.pdf", MB);
+        service.uploadFile("warm-up/single.pdf", file, "application/pdf");
+        new S3Service(s3Client, s3AsyncClient, presigner, new SimpleMeterRegistry(), 1, 8 * MB,
+                Duration.ofMinutes(15), 100, Duration.ofMinutes(1))
+                .uploadFile("warm-up/multipart.pdf", file, "application/pdf");
+    }
+
+    private static void assertAllocatedWellBelow(Result result, Path file) throws Exception {
+        long size = Files.size(file);
+        assertTrue(result.allocatedBytes() < size / 8,
+                () -> result.allocatedBytes() + " bytes allocated uploading a " + size + " byte file");
+    }
+
+    private Path randomFile(String name, long size) throws Exception {
+        Path file = tempDir.resolve(name);
+        Random random = new Random(42);
+        byte[] chunk = new byte[(int) MB];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += chunk.length) {
+                random.nextBytes(chunk);
+                out.write(chunk);
+            }
+        }
+        return file;
+    }
+
+    private static String md5(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        digest.update(Files.readAllBytes(file));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.orderservice.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal S3 stand-in for tests: accepts PutObject and the multipart upload calls,
+ * decodes aws-chunked bodies, and records sizes and MD5 digests instead of contents.
+ */
+public class LocalS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> uploadSizes = new ConcurrentHashMap<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicInteger partsReceived = new AtomicInteger();
+
+    public record StoredObject(long size, String md5, boolean multipart) {
+    }
+
+    public LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public StoredObject object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public int partsReceived() {
+        return partsReceived.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            String query = exchange.getRequestURI().getRawQuery();
+            String method = exchange.getRequestMethod();
+
+            if ("POST".equals(method) && query != null && query.startsWith("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploadSizes.put(uploadId, new AtomicLong());
+                String[] bucketAndKey = path.split("/", 2);
+                respondXml(exchange, "<InitiateMultipartUploadResult><Bucket>" + bucketAndKey[0] + "</Bucket><Key>"
+                        + bucketAndKey[1] + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && query != null && query.contains("partNumber=")) {
+                String uploadId = param(query, "uploadId");
+                Body body = readBody(exchange);
+                uploadSizes.get(uploadId).addAndGet(body.size);
+                partsReceived.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", "\"" + body.md5 + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("POST".equals(method) && query != null && query.contains("uploadId=")) {
+                readBody(exchange);
+                long size = uploadSizes.remove(param(query, "uploadId")).get();
+                objects.put(path, new StoredObject(size, null, true));
+                respondXml(exchange, "<CompleteMultipartUploadResult><Key>" + path
+                        + "</Key><ETag>\"multipart\"</ETag></CompleteMultipartUploadResult>");
+            } else if ("DELETE".equals(method) && query != null && query.contains("uploadId=")) {
+                uploadSizes.remove(param(query, "uploadId"));
+                exchange.sendResponseHeaders(204, -1);
+            } else if ("PUT".equals(method)) {
+                Body body = readBody(exchange);
+                objects.put(path, new StoredObject(body.size, body.md5, false));
+                exchange.getResponseHeaders().add("ETag", "\"" + body.md5 + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(501, -1);
+            }
+        }
+    }
+
+    private record Body(long size, String md5) {
+    }
+
+    private Body readBody(HttpExchange exchange) throws IOException {
+        MessageDigest md5 = md5();
+        InputStream in = exchange.getRequestBody();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        long size = 0;
+        byte[] buffer = new byte[64 * 1024];
+
+        if (sha != null && sha.startsWith("STREAMING-")) {
+            // aws-chunked: "<hex-size>[;extensions]\r\n<data>\r\n" ... "0[;extensions]\r\n[trailers]\r\n"
+            while (true) {
+                String header = readLine(in);
+                int chunkSize = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+                if (chunkSize == 0) {
+                    while (!readLine(in).isEmpty()) {
+                        // skip trailing checksum headers
+                    }
+                    break;
+                }
+                int remaining = chunkSize;
+                while (remaining > 0) {
+                    int n = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (n < 0) {
+                        throw new IOException("Truncated aws-chunked body");
+                    }
+                    md5.update(buffer, 0, n);
+                    remaining -= n;
+                }
+                size += chunkSize;
+                readLine(in);
+            }
+        } else {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                md5.update(buffer, 0, n);
+                size += n;
+            }
+        }
+        bytesReceived.addAndGet(size);
+        return new Body(size, HexFormat.of().formatHex(md5.digest()));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static void respondXml(HttpExchange exchange, String xml) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            String[] kv = pair.split("=", 2);
+            if (kv[0].equals(name)) {
+                return kv.length > 1 ? kv[1] : "";
+            }
+        }
+        return null;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
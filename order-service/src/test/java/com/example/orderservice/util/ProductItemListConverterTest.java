@@ -0,0 +1,58 @@
+package com.example.orderservice.util;
+
+import com.example.orderservice.model.ProductItem;
+import com.example.orderservice.util.ProductItemListConverter.StorageFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductItemListConverterTest {
+
+    private final ProductItemListConverter converter = new ProductItemListConverter();
+
+    @AfterEach
+    void resetFormat() {
+        ProductItemListConverter.setWriteFormat(StorageFormat.JSON);
+    }
+
+    @Test
+    void roundTripsItemsThroughTheSharedCodecs() {
+        AttributeValue stored = converter.transformFrom(List.of(new ProductItem("p1", 2, 9.5)));
+
+        List<ProductItem> items = converter.transformTo(stored);
+
+        assertEquals(1, items.size());
+        assertEquals("p1", items.get(0).getProductId());
+        assertEquals(2, items.get(0).getQuantity());
+        assertEquals(9.5, items.get(0).getUnitPrice());
+    }
+
+    @Test
+    void ignoresUnknownFieldsInStoredJson() {
+        List<ProductItem> items = converter.transformTo(
+                AttributeValue.fromS("[{\"productId\":\"p1\",\"quantity\":1,\"unitPrice\":2.0,\"legacy\":true}]"));
+
+        assertEquals("p1", items.get(0).getProductId());
+    }
+
+    @Test
+    void listFormatWritesNativeMapsAndBothFormatsRemainReadable() {
+        AttributeValue json = converter.transformFrom(List.of(new ProductItem("p1", 2, 9.5)));
+        ProductItemListConverter.setWriteFormat(StorageFormat.LIST);
+        AttributeValue list = converter.transformFrom(List.of(new ProductItem("p1", 2, 9.5)));
+
+        assertNotNull(json.s());
+        assertTrue(list.hasL());
+        assertEquals("2", list.l().get(0).m().get("quantity").n());
+        for (AttributeValue stored : List.of(json, list)) {
+            ProductItem item = converter.transformTo(stored).get(0);
+            assertEquals("p1", item.getProductId());
+            assertEquals(2, item.getQuantity());
+            assertEquals(9.5, item.getUnitPrice());
+        }
+    }
+}